@@ -0,0 +1,58 @@
+package com.ramteja.rubik;
+
+import java.util.Random;
+
+/**
+ * A fixed, seeded set of scrambled states shared by the benchmarks, so that numbers from
+ * different runs and different commits are measured on the same cubes.
+ */
+final class BenchCorpus {
+    static final long SEED = 20240531L;
+    static final int SIZE = 64;
+    static final int SCRAMBLE_LENGTH = 25;
+
+    private static final Algorithm[] SCRAMBLES = new Algorithm[SIZE];
+
+    static {
+        Random random = new Random(SEED);
+        for (int i = 0; i < SIZE; i++) {
+            SCRAMBLES[i] = randomMoves(random, SCRAMBLE_LENGTH);
+        }
+    }
+
+    private BenchCorpus() {
+    }
+
+    /**
+     * @return The scramble that produces corpus state {@code i}.
+     */
+    static Algorithm scramble(int i) {
+        return SCRAMBLES[i];
+    }
+
+    /**
+     * @return A new cube in corpus state {@code i}.
+     */
+    static RubikCube cube(int i) {
+        RubikCube cube = new RubikCube();
+        cube.applyRotation(SCRAMBLES[i]);
+        return cube;
+    }
+
+    /**
+     * @return A seeded random move sequence of the given length without two turns of the same face in a row.
+     */
+    static Algorithm randomMoves(Random random, int length) {
+        byte[] moves = new byte[length];
+        int lastFace = -1;
+        for (int i = 0; i < length; i++) {
+            int face;
+            do {
+                face = random.nextInt(6);
+            } while (face == lastFace);
+            lastFace = face;
+            moves[i] = (byte) (3 * face + random.nextInt(3));
+        }
+        return new Algorithm(moves);
+    }
+}
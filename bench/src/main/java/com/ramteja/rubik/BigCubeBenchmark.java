@@ -0,0 +1,71 @@
+package com.ramteja.rubik;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-turn cost of the N x N cube: outer face turns, inner slice turns and compiled sequences.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BigCubeBenchmark {
+
+    @State(Scope.Thread)
+    public static class Cube {
+        @Param({"4", "10", "100"})
+        public int size;
+
+        BigCube cube;
+        int[] sequence;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            cube = new BigCube(size);
+            // 200 random single-layer turns
+            Random random = new Random(BenchCorpus.SEED);
+            StringBuilder moves = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                moves.append(1 + random.nextInt(size))
+                        .append(Moves.FACES.charAt(random.nextInt(6)))
+                        .append(i % 3 == 0 ? "'" : i % 3 == 1 ? "2" : "")
+                        .append(' ');
+            }
+            sequence = cube.compile(moves.toString());
+            cube.applyMoves(sequence);
+        }
+    }
+
+    @Benchmark
+    public BigCube faceTurn(Cube state) {
+        state.cube.turn(1, 0, 1);
+        return state.cube;
+    }
+
+    @Benchmark
+    public BigCube sliceTurn(Cube state) {
+        state.cube.turn(1, state.size / 2, 1);
+        return state.cube;
+    }
+
+    @Benchmark
+    public BigCube applyMoves(Cube state) {
+        state.cube.applyMoves(state.sequence);
+        return state.cube;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ramteja.rubik;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-operation cost of the cube model: single turns, move strings, and state queries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CubeBenchmark {
+
+    // Params live in separate states so each benchmark only runs over its own parameters
+    @State(Scope.Thread)
+    public static class Scrambled {
+        RubikCube cube;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            cube = BenchCorpus.cube(0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SingleMove {
+        @Param({"U", "U'", "U2", "R", "R'", "R2", "F", "F'", "F2", "D", "D'", "D2", "L", "L'", "L2", "B", "B'", "B2"})
+        public String move;
+    }
+
+    @State(Scope.Thread)
+    public static class LongRotation {
+        @Param({"20", "200", "2000"})
+        public int length;
+
+        String rotation;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            rotation = BenchCorpus.randomMoves(new Random(BenchCorpus.SEED), length).toString();
+        }
+    }
+
+    @Benchmark
+    public RubikCube rotateFace(Scrambled state, SingleMove single) {
+        state.cube.rotateFace(single.move);
+        return state.cube;
+    }
+
+    @Benchmark
+    public RubikCube applyRotation(Scrambled state, LongRotation rotation) {
+        state.cube.applyRotation(rotation.rotation);
+        return state.cube;
+    }
+
+    @Benchmark
+    public String cubeToString(Scrambled state) {
+        return state.cube.toString();
+    }
+
+    @Benchmark
+    public boolean isSolved(Scrambled state) {
+        return state.cube.isSolved();
+    }
+
+    @Benchmark
+    public String scrambleCube(Scrambled state) {
+        return state.cube.scrambleCube();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ramteja.rubik;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solver cost on the seeded corpus: the first solve in a fresh JVM (table build or mapping
+ * included), steady-state single solves, and aggregate throughput with every core solving.
+ *
+ * Run the cold benchmark with {@code -jvmArgs -Drubik.tables=FILE} to measure startup from a
+ * table file instead of building the tables.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SolveBenchmark {
+
+    @State(Scope.Thread)
+    public static class Corpus {
+        RubikCube[] cubes;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            cubes = new RubikCube[BenchCorpus.SIZE];
+            for (int i = 0; i < cubes.length; i++) {
+                cubes[i] = BenchCorpus.cube(i);
+            }
+        }
+
+        RubikCube nextCube() {
+            RubikCube cube = cubes[next];
+            next = (next + 1) % cubes.length;
+            return cube;
+        }
+    }
+
+    /**
+     * One solve per fork, before any tables exist.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public String coldSolve(Corpus corpus) {
+        return corpus.nextCube().solveCube();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(2)
+    public String warmSolve(Corpus corpus) {
+        return corpus.nextCube().solveCube();
+    }
+
+    /**
+     * Solves per millisecond across all hardware threads; override the thread count with {@code -t}.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(2)
+    @Threads(Threads.MAX)
+    public String solveThroughput(Corpus corpus) {
+        return corpus.nextCube().solveCube();
+    }
+}
@@ -1,7 +1,7 @@
 @echo off
 echo Compiling Java project...
 if not exist bin mkdir bin
-javac -cp "lib/*" -d bin src/com/ramteja/rubik/*.java
+javac -d bin src/com/ramteja/rubik/*.java
 if %ERRORLEVEL% == 0 (
     echo Compilation successful!
 ) else (
@@ -1,7 +1,7 @@
 #!/bin/bash
 echo "Compiling Java project..."
 mkdir -p bin
-javac -cp "lib/*" -d bin src/com/ramteja/rubik/*.java
+javac -d bin src/com/ramteja/rubik/*.java
 if [ $? -eq 0 ]; then
     echo "Compilation successful!"
 else
@@ -1,4 +1,4 @@
 @echo off
 echo Running Rubik Cube Solver...
-java -cp "bin;lib/*" com.ramteja.rubik.RubikCubeGUI
+java -cp bin com.ramteja.rubik.RubikCubeGUI
 pause
\ No newline at end of file
@@ -1,3 +1,3 @@
 #!/bin/bash
 echo "Running Rubik Cube Solver..."
-java -cp "bin:lib/*" com.ramteja.rubik.RubikCubeGUI
\ No newline at end of file
+java -cp bin com.ramteja.rubik.RubikCubeGUI
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.ramteja.rubik;
+
+import java.util.Arrays;
+
+/**
+ * An immutable move sequence compiled once into primitive move codes.
+ * Parsing a string like "R U R' U'" happens only in {@link #parse(String)};
+ * applying the result to a cube is a plain loop over the codes.
+ */
+public final class Algorithm {
+    private final byte[] moves;
+
+    Algorithm(byte[] moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * Compiles a whitespace separated move sequence in standard notation (U, U', U2, etc.).
+     * @param sequence The moves to compile. Leading, trailing and repeated whitespace is ignored.
+     * @return The compiled algorithm.
+     * @throws IllegalArgumentException if a token is not a valid move.
+     */
+    public static Algorithm parse(String sequence) {
+        byte[] codes = new byte[(sequence.length() + 1) / 2];
+        int count = 0;
+        int i = 0;
+        int n = sequence.length();
+        while (i < n) {
+            if (Character.isWhitespace(sequence.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && !Character.isWhitespace(sequence.charAt(i))) {
+                i++;
+            }
+            codes[count++] = (byte) parseToken(sequence, start, i);
+        }
+        return new Algorithm(Arrays.copyOf(codes, count));
+    }
+
+    private static int parseToken(String sequence, int start, int end) {
+        int face = Moves.FACES.indexOf(sequence.charAt(start));
+        int power = 1;
+        if (end - start == 2 && sequence.charAt(start + 1) == '\'') {
+            power = 3;
+        } else if (end - start == 2 && sequence.charAt(start + 1) == '2') {
+            power = 2;
+        } else if (end - start != 1) {
+            face = -1;
+        }
+        if (face < 0) {
+            throw new IllegalArgumentException("Invalid rotation: " + sequence.substring(start, end));
+        }
+        return 3 * face + power - 1;
+    }
+
+    /**
+     * @return The number of moves in the sequence.
+     */
+    public int length() {
+        return moves.length;
+    }
+
+    /**
+     * @return The move code at the given position, 3 * face + power - 1 with faces ordered U R F D L B.
+     */
+    public int moveAt(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @return The name of the move at the given position, e.g. "R'".
+     */
+    public String moveName(int index) {
+        return Moves.name(moves[index]);
+    }
+
+    /**
+     * @return The sequence that undoes this one: the inverse moves in reverse order.
+     */
+    public Algorithm inverse() {
+        byte[] inverse = new byte[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            inverse[moves.length - 1 - i] = (byte) Moves.inverse(moves[i]);
+        }
+        return new Algorithm(inverse);
+    }
+
+    /**
+     * @return The single facelet permutation this sequence performs.
+     */
+    public Permutation toPermutation() {
+        return Permutation.of(this);
+    }
+
+    /**
+     * @return How many times the sequence must be repeated to return a cube to its starting state.
+     */
+    public int order() {
+        return toPermutation().order();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Algorithm && Arrays.equals(moves, ((Algorithm) o).moves);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(moves);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(moves.length * 3);
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(Moves.name(moves[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,203 @@
+package com.ramteja.rubik;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a stream of cube states in parallel.
+ *
+ * Input is one 54-character facelet string per line, in {@link RubikCube#toString()} format.
+ * Output is one {@code state -> solution} line per input line, in input order. Invalid states get
+ * the solver's "Error n" code in place of a solution. At most a fixed window of lines is in flight
+ * at once, so memory use does not depend on the input size.
+ *
+ * Usage: {@code java -cp bin com.ramteja.rubik.BatchSolver [-threads N] [-depth D] [-timeout S] [-cache N] [-optimal] [-stats] in out}
+ * where "-" stands for standard input or output. With {@code -cache N}, repeated and symmetric states
+ * are answered from a {@link SolutionCache} of up to N entries. With {@code -optimal}, every state
+ * gets a shortest solution from the {@link OptimalSolver}, which searches each state on all cores.
+ * States in the shallow state index ({@code -Drubik.shallow}, see {@link ShallowIndex}) are looked up
+ * before any of these. With {@code -stats}, the {@link SolverMetrics} of all two-phase solves are
+ * printed to standard error at the end.
+ */
+public class BatchSolver {
+    private static final String SOLVED = new RubikCube().toString();
+
+    private final int threads;
+    private final int maxDepth;
+    private final long timeOut;
+    private SolutionCache cache;
+    private OptimalSolver optimal;
+    private final ShallowIndex index = ShallowIndex.get();
+
+    /**
+     * @param threads Number of solver threads.
+     * @param maxDepth Maximal solution length passed to the solver.
+     * @param timeOut Per-state time limit in seconds.
+     */
+    public BatchSolver(int threads, int maxDepth, long timeOut) {
+        this.threads = threads;
+        this.maxDepth = maxDepth;
+        this.timeOut = timeOut;
+    }
+
+    /**
+     * Routes solves through a cache; pass null to always run the solver.
+     */
+    public void setCache(SolutionCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Finds shortest solutions with the given solver instead of two-phase ones; pass null to switch back.
+     */
+    public void setOptimalSolver(OptimalSolver optimal) {
+        this.optimal = optimal;
+    }
+
+    /**
+     * Solves every non-blank line of {@code in} and writes the results to {@code out} in input order.
+     * @return The number of states written.
+     */
+    public long solve(BufferedReader in, Writer out) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // Enough queued work to keep every thread busy while the head of the window is written
+        int window = threads * 4;
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>(window);
+        long written = 0;
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String state = line.trim();
+                if (state.isEmpty()) {
+                    continue;
+                }
+                if (pending.size() == window) {
+                    write(out, pending.poll());
+                    written++;
+                }
+                pending.add(pool.submit(() -> state + " -> " + solve(state)));
+            }
+            while (!pending.isEmpty()) {
+                write(out, pending.poll());
+                written++;
+            }
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return written;
+    }
+
+    // Solves one state with the configured solver, cache and index
+    String solve(String state) throws InterruptedException {
+        if (state.equals(SOLVED)) {
+            return "";
+        }
+        if (index != null) {
+            byte[] facelets = TwoPhaseSolver.parseFacelets(state);
+            String indexed = facelets != null ? index.solution(facelets) : null;
+            if (indexed != null) {
+                return indexed;
+            }
+        }
+        if (optimal != null) {
+            return optimal.solution(state);
+        }
+        if (cache != null) {
+            return cache.solve(state);
+        }
+        return TwoPhaseSolver.forCurrentThread().solution(state, maxDepth, timeOut, false).trim();
+    }
+
+    private static void write(Writer out, Future<String> result) throws IOException, InterruptedException {
+        try {
+            out.write(result.get());
+        } catch (ExecutionException e) {
+            throw new IOException("Solver failed", e.getCause());
+        }
+        out.write('\n');
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String usage = "Usage: BatchSolver [-threads N] [-depth D] [-timeout S] [-cache N] [-optimal] [-stats] <input|-> <output|->";
+        int threads = 0;
+        int maxDepth = 21;
+        long timeOut = 1000;
+        int cacheSize = 0;
+        boolean optimal = false;
+        boolean stats = false;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-") && args[i].length() > 1; i += 2) {
+            if (args[i].equals("-optimal")) {
+                optimal = true;
+                i--;
+                continue;
+            }
+            if (args[i].equals("-stats")) {
+                stats = true;
+                i--;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                System.err.println(usage);
+                return;
+            }
+            switch (args[i]) {
+                case "-threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "-depth": maxDepth = Integer.parseInt(args[i + 1]); break;
+                case "-timeout": timeOut = Long.parseLong(args[i + 1]); break;
+                case "-cache": cacheSize = Integer.parseInt(args[i + 1]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        if (threads == 0) {
+            // With -optimal each state is already searched on every core
+            threads = optimal ? 1 : Runtime.getRuntime().availableProcessors();
+        }
+        if (args.length - i != 2) {
+            System.err.println(usage);
+            return;
+        }
+        BufferedReader in = args[i].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII))
+                : Files.newBufferedReader(Paths.get(args[i]), StandardCharsets.US_ASCII);
+        Writer out = args[i + 1].equals("-")
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))
+                : Files.newBufferedWriter(Paths.get(args[i + 1]), StandardCharsets.US_ASCII);
+
+        if (stats) {
+            SolverMetrics.setEnabled(true);
+        }
+        long start = System.currentTimeMillis();
+        try (BufferedReader input = in; Writer output = out) {
+            BatchSolver solver = new BatchSolver(threads, maxDepth, timeOut);
+            SolutionCache cache = cacheSize > 0 ? new SolutionCache(cacheSize, maxDepth, timeOut) : null;
+            solver.setCache(cache);
+            if (optimal) {
+                solver.setOptimalSolver(new OptimalSolver());
+            }
+            long count = solver.solve(input, output);
+            System.err.println("Solved " + count + " states in " + (System.currentTimeMillis() - start) + " ms");
+            if (cache != null) {
+                System.err.println(cache);
+            }
+            if (SolverMetrics.isEnabled()) {
+                SolverMetrics.dump(System.err);
+            }
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.ramteja.rubik;
+
+import java.util.Arrays;
+
+/**
+ * An N x N x N cube for simulating big cubes, where {@link RubikCube}'s fixed 54-sticker layout
+ * does not apply.
+ *
+ * The stickers are one byte array, N * N per face in U R F D L B order. For N = 3 the layout,
+ * {@link #toString()} and the effect of every face turn match {@link RubikCube}. Turning a layer
+ * moves only the 4N stickers around it. The stickers of a face that turns with it are not moved at
+ * all: each face keeps a quarter-turn orientation, and reads and writes go through it, so every
+ * layer turn costs O(N) however big the cube is.
+ *
+ * Moves use standard big cube notation on top of the 3x3 one (U, U', U2, etc.): {@code Rw} turns
+ * the two outer R layers, {@code 3Rw} the three outer ones, and {@code 3R} only the third layer
+ * from R.
+ */
+public final class BigCube {
+    /** The largest supported size. */
+    public static final int MAX_SIZE = 8192;
+
+    // A compiled move is first layer << 18 | last layer << 5 | face << 2 | power - 1, layers as depths from the face
+    private static final int LAYER_BITS = 13;
+    private static final int LAYER_MASK = (1 << LAYER_BITS) - 1;
+
+    private final int n;
+    private final int area;
+
+    // The stickers, each holding the index of the face whose color it shows. A face's cells are
+    // stored as they were when its orientation was 0.
+    private final byte[] stickers;
+
+    // Clockwise quarter turns each face has made since its cells were last laid out
+    private final int[] orientation = new int[6];
+
+    // For the three axes (through U, R and F) the four strips of the ring around a layer, in the
+    // order a clockwise turn of U, R or F moves them: {face, r0, rk, ri, c0, ck, ci}, so that
+    // sticker i of the strip in the layer k deep is at row r0 + k * rk + i * ri, column c0 + k * ck + i * ci.
+    private final int[][][] rings = new int[3][4][];
+
+    // Scratch space for the strip start and step of one layer turn
+    private final int[] start = new int[4];
+    private final int[] step = new int[4];
+
+    /**
+     * Creates a solved cube.
+     * @param n The number of layers along each edge.
+     * @throws IllegalArgumentException if n is not between 1 and {@link #MAX_SIZE}.
+     */
+    public BigCube(int n) {
+        if (n < 1 || n > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SIZE + ": " + n);
+        }
+        this.n = n;
+        this.area = n * n;
+        this.stickers = new byte[6 * area];
+        for (int axis = 0; axis < 3; axis++) {
+            buildRing(axis);
+        }
+        resetCube();
+    }
+
+    /**
+     * @return The number of layers along each edge.
+     */
+    public int size() {
+        return n;
+    }
+
+    public void resetCube() {
+        for (int face = 0; face < 6; face++) {
+            Arrays.fill(stickers, face * area, (face + 1) * area, (byte) face);
+        }
+        Arrays.fill(orientation, 0);
+    }
+
+    // ************************************** Geometry *********************************************
+
+    // Sticker positions are integer points on the surface of a cube with corners at (+-n, +-n, +-n):
+    // x towards R, y towards U, z towards F, with each face seen from outside as in toString().
+    private int[] position(int face, int row, int col) {
+        int m = n - 1;
+        switch (face) {
+            case 0: return new int[] {2 * col - m, n, 2 * row - m};
+            case 1: return new int[] {n, m - 2 * row, m - 2 * col};
+            case 2: return new int[] {2 * col - m, m - 2 * row, n};
+            case 3: return new int[] {2 * col - m, -n, m - 2 * row};
+            case 4: return new int[] {-n, m - 2 * row, 2 * col - m};
+            default: return new int[] {m - 2 * col, m - 2 * row, -n};
+        }
+    }
+
+    // The {face, row, col} of the sticker at a position
+    private int[] cellAt(int[] p) {
+        int m = n - 1;
+        if (p[1] == n) {
+            return new int[] {0, (p[2] + m) / 2, (p[0] + m) / 2};
+        } else if (p[0] == n) {
+            return new int[] {1, (m - p[1]) / 2, (m - p[2]) / 2};
+        } else if (p[2] == n) {
+            return new int[] {2, (m - p[1]) / 2, (p[0] + m) / 2};
+        } else if (p[1] == -n) {
+            return new int[] {3, (m - p[2]) / 2, (p[0] + m) / 2};
+        } else if (p[0] == -n) {
+            return new int[] {4, (m - p[1]) / 2, (p[2] + m) / 2};
+        }
+        return new int[] {5, (m - p[1]) / 2, (m - p[0]) / 2};
+    }
+
+    // A clockwise quarter turn about the axis through U (0), R (1) or F (2), seen from that face
+    private static int[] rotate(int[] p, int axis) {
+        switch (axis) {
+            case 0: return new int[] {-p[2], p[1], p[0]};
+            case 1: return new int[] {p[0], p[2], -p[1]};
+            default: return new int[] {p[1], -p[0], p[2]};
+        }
+    }
+
+    // Finds the ring strips around the layers of one axis by following the stickers of the
+    // first strip through four turns, for the two outer layers and their first two stickers
+    private void buildRing(int axis) {
+        int coordinate = axis == 0 ? 1 : axis == 1 ? 0 : 2;
+        int firstFace = axis == 2 ? 0 : 2;
+        int[][][] cells = new int[2][2][]; // [layer][sticker]
+        for (int k = 0; k < Math.min(n, 2); k++) {
+            int found = 0;
+            for (int i = 0; i < area && found < 2; i++) {
+                int[] p = position(firstFace, i / n, i % n);
+                if (p[coordinate] == n - 1 - 2 * k) {
+                    cells[k][found++] = p;
+                }
+            }
+        }
+        for (int j = 0; j < 4; j++) {
+            int[] origin = cellAt(cells[0][0]);
+            int[] ring = {origin[0], origin[1], 0, 0, origin[2], 0, 0};
+            if (n > 1) {
+                int[] nextSticker = cellAt(cells[0][1]);
+                int[] nextLayer = cellAt(cells[1][0]);
+                ring[2] = nextLayer[1] - origin[1];
+                ring[3] = nextSticker[1] - origin[1];
+                ring[5] = nextLayer[2] - origin[2];
+                ring[6] = nextSticker[2] - origin[2];
+            }
+            rings[axis][j] = ring;
+            for (int[][] layer : cells) {
+                for (int s = 0; s < 2; s++) {
+                    if (layer[s] != null) {
+                        layer[s] = rotate(layer[s], axis);
+                    }
+                }
+            }
+        }
+    }
+
+    // The array index of a cell of a face, seen through the face's orientation
+    private int index(int face, int row, int col) {
+        int m = n - 1;
+        switch (orientation[face]) {
+            case 0: return face * area + row * n + col;
+            case 1: return face * area + (m - col) * n + row;
+            case 2: return face * area + (m - row) * n + m - col;
+            default: return face * area + col * n + m - row;
+        }
+    }
+
+    // ************************************** Moves ************************************************
+
+    /**
+     * Turns one layer.
+     * @param face The face index in U R F D L B order the turn is seen from.
+     * @param depth The layer, 0 for the outer layer of that face up to n - 1 for the opposite face.
+     * @param power The number of clockwise quarter turns, 1 to 3.
+     */
+    public void turn(int face, int depth, int power) {
+        if (face < 0 || face > 5 || depth < 0 || depth >= n || power < 1 || power > 3) {
+            throw new IllegalArgumentException("Invalid turn: face " + face + ", depth " + depth + ", power " + power);
+        }
+        // Every turn is made about the axis through U, R or F, as seen from that face
+        int axis = face % 3;
+        int k = face < 3 ? depth : n - 1 - depth;
+        int quarters = face < 3 ? power : 4 - power;
+        if (k == 0) {
+            orientation[axis] = (orientation[axis] + quarters) & 3;
+        }
+        if (k == n - 1) {
+            orientation[axis + 3] = (orientation[axis + 3] + 4 - quarters) & 3;
+        }
+        cycle(axis, k, quarters);
+    }
+
+    // Moves the 4n stickers around layer k of an axis by the given quarter turns
+    private void cycle(int axis, int k, int quarters) {
+        int m = n - 1;
+        for (int j = 0; j < 4; j++) {
+            int[] ring = rings[axis][j];
+            int face = ring[0];
+            // index() is affine in row and column, so each strip is an arithmetic sequence
+            int rowStride;
+            int colStride;
+            int origin;
+            switch (orientation[face]) {
+                case 0: origin = 0; rowStride = n; colStride = 1; break;
+                case 1: origin = m * n; rowStride = 1; colStride = -n; break;
+                case 2: origin = m * n + m; rowStride = -n; colStride = -1; break;
+                default: origin = m; rowStride = -1; colStride = n; break;
+            }
+            int row = ring[1] + k * ring[2];
+            int col = ring[4] + k * ring[5];
+            start[j] = face * area + origin + row * rowStride + col * colStride;
+            step[j] = ring[3] * rowStride + ring[6] * colStride;
+        }
+        byte[] s = stickers;
+        int a = start[0], b = start[1], c = start[2], d = start[3];
+        int da = step[0], db = step[1], dc = step[2], dd = step[3];
+        switch (quarters) {
+            case 1:
+                for (int i = 0; i < n; i++, a += da, b += db, c += dc, d += dd) {
+                    byte t = s[d];
+                    s[d] = s[c]; s[c] = s[b]; s[b] = s[a]; s[a] = t;
+                }
+                break;
+            case 2:
+                for (int i = 0; i < n; i++, a += da, b += db, c += dc, d += dd) {
+                    byte t = s[a];
+                    s[a] = s[c]; s[c] = t;
+                    t = s[b];
+                    s[b] = s[d]; s[d] = t;
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++, a += da, b += db, c += dc, d += dd) {
+                    byte t = s[a];
+                    s[a] = s[b]; s[b] = s[c]; s[c] = s[d]; s[d] = t;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Compiles a whitespace separated move sequence for a cube of this size. Besides the 3x3 moves
+     * (U, U', U2, etc.) a move may turn several outer layers ({@code Rw}, {@code 3Rw}) or a single
+     * inner one ({@code 3R}).
+     * @return The compiled moves, for {@link #applyMoves(int[])}.
+     * @throws IllegalArgumentException if a token is not a valid move or names a layer the cube does not have.
+     */
+    public int[] compile(String sequence) {
+        int[] codes = new int[(sequence.length() + 1) / 2];
+        int count = 0;
+        int i = 0;
+        int len = sequence.length();
+        while (i < len) {
+            if (Character.isWhitespace(sequence.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < len && !Character.isWhitespace(sequence.charAt(i))) {
+                i++;
+            }
+            codes[count++] = parseToken(sequence, start, i);
+        }
+        return Arrays.copyOf(codes, count);
+    }
+
+    private int parseToken(String sequence, int start, int end) {
+        int i = start;
+        int layer = 0;
+        while (i < end && i - start < 5 && Character.isDigit(sequence.charAt(i))) {
+            layer = layer * 10 + sequence.charAt(i++) - '0';
+        }
+        boolean numbered = i > start;
+        int face = i < end ? Moves.FACES.indexOf(sequence.charAt(i++)) : -1;
+        boolean wide = i < end && sequence.charAt(i) == 'w';
+        if (wide) {
+            i++;
+        }
+        int power = 1;
+        if (i < end && sequence.charAt(i) == '2') {
+            power = 2;
+            i++;
+            if (i < end && sequence.charAt(i) == '\'') {
+                i++;
+            }
+        } else if (i < end && sequence.charAt(i) == '\'') {
+            power = 3;
+            i++;
+        }
+        if (!numbered) {
+            layer = wide ? 2 : 1;
+        }
+        if (face < 0 || i != end || layer < 1 || layer > n) {
+            throw new IllegalArgumentException("Invalid rotation: " + sequence.substring(start, end));
+        }
+        int first = wide ? 0 : layer - 1;
+        return first << (LAYER_BITS + 5) | (layer - 1) << 5 | face << 2 | (power - 1);
+    }
+
+    /**
+     * Applies moves compiled by {@link #compile(String)} for a cube of this size.
+     */
+    public void applyMoves(int[] moves) {
+        for (int move : moves) {
+            int face = (move >>> 2) & 7;
+            int power = (move & 3) + 1;
+            int last = (move >>> 5) & LAYER_MASK;
+            for (int depth = move >>> (LAYER_BITS + 5); depth <= last; depth++) {
+                turn(face, depth, power);
+            }
+        }
+    }
+
+    /**
+     * Applies a move sequence in the notation of {@link #compile(String)}. The string is compiled
+     * on every call; compile it once to apply the same sequence repeatedly.
+     * @throws IllegalArgumentException if the string contains an invalid move.
+     */
+    public void applyRotation(String rotation) {
+        applyMoves(compile(rotation));
+    }
+
+    // ************************************** State ************************************************
+
+    /**
+     * Returns the color index (0..5, in U R F D L B face order) shown on a cell of a face.
+     * @param face The face index in U R F D L B order.
+     */
+    public int getFacelet(int face, int row, int col) {
+        return stickers[index(face, row, col)];
+    }
+
+    /**
+     * A cube is solved when every face shows a single color. For even sizes there is no fixed
+     * center, so the colors need not be on their starting faces.
+     */
+    public boolean isSolved() {
+        for (int face = 0; face < 6; face++) {
+            byte color = stickers[face * area];
+            for (int i = face * area + 1, end = (face + 1) * area; i < end; i++) {
+                if (stickers[i] != color) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The face letter of every sticker, U R F D L B faces row by row, as in {@link RubikCube#toString()}.
+     */
+    @Override
+    public String toString() {
+        char[] names = new char[6 * area];
+        int i = 0;
+        for (int face = 0; face < 6; face++) {
+            for (int row = 0; row < n; row++) {
+                for (int col = 0; col < n; col++) {
+                    names[i++] = Moves.FACES.charAt(getFacelet(face, row, col));
+                }
+            }
+        }
+        return new String(names);
+    }
+}
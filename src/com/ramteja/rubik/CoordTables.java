@@ -0,0 +1,529 @@
+package com.ramteja.rubik;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+/**
+ * The read-only move and pruning tables of the two-phase algorithm, built once per JVM and
+ * shared by every {@link TwoPhaseSolver}.
+ *
+ * These are the tables of Kociemba's org.kociemba.twophase.CoordCube, flattened so that the
+ * entry for coordinate c and move m lives at index {@code c * 18 + m}. Nothing here is written
+ * after construction, so any number of threads may read the tables concurrently.
+ *
+ * Building the tables takes seconds. If the system property {@code rubik.tables} names a file,
+ * the tables are memory-mapped from it instead, so every JVM on a host shares the same page cache;
+ * a missing or outdated file is rebuilt and written there first. {@code main} generates the file
+ * ahead of time.
+ */
+final class CoordTables {
+    static final String TABLES_PROPERTY = "rubik.tables";
+
+    // File header: magic "RCTB", format version, table count, reserved
+    private static final int MAGIC = 0x52435442;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int TABLE_COUNT = 12;
+
+    // rw-r--r--, so that JVMs of other accounts can map the file
+    private static final FileAttribute<Set<PosixFilePermission>> SHARED_FILE =
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-r--r--"));
+
+    static final int N_TWIST = 2187;     // 3^7 possible corner orientations
+    static final int N_FLIP = 2048;      // 2^11 possible edge flips
+    static final int N_SLICE1 = 495;     // 12 choose 4 possible positions of FR,FL,BL,BR edges
+    static final int N_SLICE2 = 24;      // 4! permutations of FR,FL,BL,BR edges in phase2
+    static final int N_PARITY = 2;       // 2 possible corner parities
+    static final int N_URFtoDLF = 20160; // 8!/(8-6)! permutation of URF,UFL,ULB,UBR,DFR,DLF corners
+    static final int N_FRtoBR = 11880;   // 12!/(12-4)! permutation of FR,FL,BL,BR edges
+    static final int N_URtoUL = 1320;    // 12!/(12-3)! permutation of UR,UF,UL edges
+    static final int N_UBtoDF = 1320;    // 12!/(12-3)! permutation of UB,DR,DF edges
+    static final int N_URtoDF = 20160;   // 8!/(8-6)! permutation of UR,UF,UL,UB,DR,DF edges in phase2
+    static final int N_MERGE = 336;      // URtoUL/UBtoDF values with all six edges outside the UD-slice
+    static final int N_URFtoDLB = 40320; // 8! permutations of all corners
+    static final int N_URtoBR = 479001600; // 12! permutations of all edges
+    static final int N_MOVE = 18;
+
+    // Corner parity after each move; quarter turns flip it, half turns keep it
+    private static final short[] PARITY_MOVE = {
+        1, 0, 1, 1, 0, 1, 1, 0, 1, 1, 0, 1, 1, 0, 1, 1, 0, 1,
+        0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1, 0
+    };
+
+    // Moves allowed in phase 2: U, D and half turns of the other faces
+    private static final boolean[] PHASE2_MOVE = {
+        true, true, true, false, true, false, false, true, false,
+        true, true, true, false, true, false, false, true, false
+    };
+
+    // Move tables; heap buffers when built in this JVM, read-only views of the file when mapped
+    private final ShortBuffer twistMove;
+    private final ShortBuffer flipMove;
+    private final ShortBuffer FRtoBR_Move;
+    private final ShortBuffer URFtoDLF_Move;
+    private final ShortBuffer URtoDF_Move;
+    private final ShortBuffer URtoUL_Move;
+    private final ShortBuffer UBtoDF_Move;
+    private final ShortBuffer MergeURtoULandUBtoDF;
+
+    // Pruning tables, two 4-bit distances per byte
+    private final ByteBuffer Slice_URFtoDLF_Parity_Prun;
+    private final ByteBuffer Slice_URtoDF_Parity_Prun;
+    private final ByteBuffer Slice_Twist_Prun;
+    private final ByteBuffer Slice_Flip_Prun;
+
+    private static final class Holder {
+        static final CoordTables INSTANCE = load();
+    }
+
+    /**
+     * Returns the shared tables, mapping or building them on first use.
+     */
+    static CoordTables get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Builds all tables on the heap. This takes a few seconds.
+     */
+    private CoordTables() {
+        twistMove = ShortBuffer.allocate(N_TWIST * N_MOVE);
+        flipMove = ShortBuffer.allocate(N_FLIP * N_MOVE);
+        FRtoBR_Move = ShortBuffer.allocate(N_FRtoBR * N_MOVE);
+        URFtoDLF_Move = ShortBuffer.allocate(N_URFtoDLF * N_MOVE);
+        URtoDF_Move = ShortBuffer.allocate(N_URtoDF * N_MOVE);
+        URtoUL_Move = ShortBuffer.allocate(N_URtoUL * N_MOVE);
+        UBtoDF_Move = ShortBuffer.allocate(N_UBtoDF * N_MOVE);
+        MergeURtoULandUBtoDF = ShortBuffer.allocate(N_MERGE * N_MERGE);
+        Slice_URFtoDLF_Parity_Prun = ByteBuffer.allocate(N_SLICE2 * N_URFtoDLF * N_PARITY / 2);
+        Slice_URtoDF_Parity_Prun = ByteBuffer.allocate(N_SLICE2 * N_URtoDF * N_PARITY / 2);
+        Slice_Twist_Prun = ByteBuffer.allocate(N_SLICE1 * N_TWIST / 2 + 1);
+        Slice_Flip_Prun = ByteBuffer.allocate(N_SLICE1 * N_FLIP / 2);
+        buildMoveTables();
+        buildPruningTables();
+    }
+
+    /**
+     * Wraps the tables stored in a mapped table file, without copying them.
+     */
+    private CoordTables(ByteBuffer file) throws IOException {
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        if (file.capacity() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("not a table file");
+        }
+        if (file.getInt(4) != FORMAT_VERSION || file.getInt(8) != TABLE_COUNT) {
+            throw new IOException("unsupported table file version " + file.getInt(4));
+        }
+        if (file.capacity() != HEADER_SIZE + dataSize()) {
+            throw new IOException("table file has the wrong size");
+        }
+        file.position(HEADER_SIZE);
+        twistMove = nextShorts(file, N_TWIST * N_MOVE);
+        flipMove = nextShorts(file, N_FLIP * N_MOVE);
+        FRtoBR_Move = nextShorts(file, N_FRtoBR * N_MOVE);
+        URFtoDLF_Move = nextShorts(file, N_URFtoDLF * N_MOVE);
+        URtoDF_Move = nextShorts(file, N_URtoDF * N_MOVE);
+        URtoUL_Move = nextShorts(file, N_URtoUL * N_MOVE);
+        UBtoDF_Move = nextShorts(file, N_UBtoDF * N_MOVE);
+        MergeURtoULandUBtoDF = nextShorts(file, N_MERGE * N_MERGE);
+        Slice_URFtoDLF_Parity_Prun = nextBytes(file, N_SLICE2 * N_URFtoDLF * N_PARITY / 2);
+        Slice_URtoDF_Parity_Prun = nextBytes(file, N_SLICE2 * N_URtoDF * N_PARITY / 2);
+        Slice_Twist_Prun = nextBytes(file, N_SLICE1 * N_TWIST / 2 + 1);
+        Slice_Flip_Prun = nextBytes(file, N_SLICE1 * N_FLIP / 2);
+    }
+
+    // ************************************** Persistence ******************************************
+
+    private static CoordTables load() {
+        String path = System.getProperty(TABLES_PROPERTY);
+        if (path == null) {
+            return new CoordTables();
+        }
+        Path file = Paths.get(path);
+        if (Files.exists(file)) {
+            try {
+                return map(file);
+            } catch (IOException e) {
+                System.err.println("Rebuilding table file " + file + ": " + e.getMessage());
+            }
+        }
+        CoordTables tables = new CoordTables();
+        try {
+            tables.save(file);
+        } catch (IOException e) {
+            System.err.println("Could not write table file " + file + ": " + e.getMessage());
+        }
+        return tables;
+    }
+
+    /**
+     * Maps a table file written by {@link #save(Path)} read-only into memory.
+     * @throws IOException if the file cannot be read or was written by a different format version.
+     */
+    static CoordTables map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CoordTables(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Creates an empty file in the directory of {@code file}, to be written and then moved over it.
+     * Where POSIX permissions are supported, it is readable by every user (within the umask), unlike
+     * {@link Files#createTempFile}'s default of owner only, which the move would keep.
+     */
+    static Path createTempFile(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        String prefix = file.getFileName().toString();
+        if (dir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return Files.createTempFile(dir, prefix, ".tmp", SHARED_FILE);
+        }
+        return Files.createTempFile(dir, prefix, ".tmp");
+    }
+
+    /**
+     * Writes the tables to a file. The file is written next to its destination and moved into
+     * place, so concurrent readers never map a partial file.
+     */
+    void save(Path file) throws IOException {
+        Path temp = createTempFile(file);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(TABLE_COUNT).putInt(0).flip();
+            writeFully(channel, header);
+            ShortBuffer[] moveTables = {twistMove, flipMove, FRtoBR_Move, URFtoDLF_Move, URtoDF_Move,
+                URtoUL_Move, UBtoDF_Move, MergeURtoULandUBtoDF};
+            for (ShortBuffer table : moveTables) {
+                ByteBuffer bytes = ByteBuffer.allocate(table.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                bytes.asShortBuffer().put(table.duplicate().clear());
+                writeFully(channel, bytes);
+            }
+            ByteBuffer[] pruningTables = {Slice_URFtoDLF_Parity_Prun, Slice_URtoDF_Parity_Prun,
+                Slice_Twist_Prun, Slice_Flip_Prun};
+            for (ByteBuffer table : pruningTables) {
+                writeFully(channel, table.duplicate().clear());
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long dataSize() {
+        long shorts = (long) (N_TWIST + N_FLIP + N_FRtoBR + N_URFtoDLF + N_URtoDF + N_URtoUL + N_UBtoDF) * N_MOVE
+                + N_MERGE * N_MERGE;
+        long bytes = N_SLICE2 * N_URFtoDLF * N_PARITY / 2 + N_SLICE2 * N_URtoDF * N_PARITY / 2
+                + N_SLICE1 * N_TWIST / 2 + 1 + N_SLICE1 * N_FLIP / 2;
+        return 2 * shorts + bytes;
+    }
+
+    private static ShortBuffer nextShorts(ByteBuffer file, int count) {
+        ByteBuffer slice = file.slice().order(ByteOrder.LITTLE_ENDIAN);
+        slice.limit(count * 2);
+        file.position(file.position() + count * 2);
+        return slice.asShortBuffer();
+    }
+
+    private static ByteBuffer nextBytes(ByteBuffer file, int count) {
+        ByteBuffer slice = file.slice();
+        slice.limit(count);
+        file.position(file.position() + count);
+        return slice;
+    }
+
+    // ************************************** Table lookups ****************************************
+
+    int twistMove(int twist, int move) {
+        return twistMove.get(twist * N_MOVE + move);
+    }
+
+    int flipMove(int flip, int move) {
+        return flipMove.get(flip * N_MOVE + move);
+    }
+
+    static int parityMove(int parity, int move) {
+        return PARITY_MOVE[parity * N_MOVE + move];
+    }
+
+    int FRtoBR_Move(int FRtoBR, int move) {
+        return FRtoBR_Move.get(FRtoBR * N_MOVE + move);
+    }
+
+    int URFtoDLF_Move(int URFtoDLF, int move) {
+        return URFtoDLF_Move.get(URFtoDLF * N_MOVE + move);
+    }
+
+    // Only valid for phase 2 moves
+    int URtoDF_Move(int URtoDF, int move) {
+        return URtoDF_Move.get(URtoDF * N_MOVE + move);
+    }
+
+    int URtoUL_Move(int URtoUL, int move) {
+        return URtoUL_Move.get(URtoUL * N_MOVE + move);
+    }
+
+    int UBtoDF_Move(int UBtoDF, int move) {
+        return UBtoDF_Move.get(UBtoDF * N_MOVE + move);
+    }
+
+    int mergeURtoULandUBtoDF(int URtoUL, int UBtoDF) {
+        return MergeURtoULandUBtoDF.get(URtoUL * N_MERGE + UBtoDF);
+    }
+
+    /**
+     * Lower bound for the phase 1 moves needed from the given flip, twist and slice coordinates.
+     */
+    int phase1Distance(int flip, int twist, int slice) {
+        return Math.max(getPruning(Slice_Flip_Prun, N_SLICE1 * flip + slice),
+                getPruning(Slice_Twist_Prun, N_SLICE1 * twist + slice));
+    }
+
+    int sliceURFtoDLFParityPrun(int URFtoDLF, int slice, int parity) {
+        return getPruning(Slice_URFtoDLF_Parity_Prun, (N_SLICE2 * URFtoDLF + slice) * 2 + parity);
+    }
+
+    int sliceURtoDFParityPrun(int URtoDF, int slice, int parity) {
+        return getPruning(Slice_URtoDF_Parity_Prun, (N_SLICE2 * URtoDF + slice) * 2 + parity);
+    }
+
+    // Set pruning value in table. Two values are stored in one byte.
+    private static void setPruning(ByteBuffer table, int index, int value) {
+        int mask = (index & 1) == 0 ? 0xf0 | value : 0x0f | (value << 4);
+        table.put(index / 2, (byte) (table.get(index / 2) & mask));
+    }
+
+    // Extract pruning value
+    private static int getPruning(ByteBuffer table, int index) {
+        if ((index & 1) == 0) {
+            return table.get(index / 2) & 0x0f;
+        } else {
+            return (table.get(index / 2) & 0xf0) >>> 4;
+        }
+    }
+
+    // ************************************** Table generation *************************************
+
+    private static void fill(ByteBuffer table, byte value) {
+        for (int i = 0; i < table.capacity(); i++) {
+            table.put(i, value);
+        }
+    }
+
+    private void buildMoveTables() {
+        CubieCube a = new CubieCube();
+        for (int i = 0; i < N_TWIST; i++) {
+            a.setTwist(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.cornerMultiply(CubieCube.MOVE_CUBE[j]);
+                    twistMove.put(i * N_MOVE + 3 * j + k, (short) a.getTwist());
+                }
+                a.cornerMultiply(CubieCube.MOVE_CUBE[j]); // 4th face turn restores a
+            }
+        }
+
+        a = new CubieCube();
+        for (int i = 0; i < N_FLIP; i++) {
+            a.setFlip(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+                    flipMove.put(i * N_MOVE + 3 * j + k, (short) a.getFlip());
+                }
+                a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+            }
+        }
+
+        a = new CubieCube();
+        for (int i = 0; i < N_FRtoBR; i++) {
+            a.setFRtoBR(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+                    FRtoBR_Move.put(i * N_MOVE + 3 * j + k, (short) a.getFRtoBR());
+                }
+                a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+            }
+        }
+
+        a = new CubieCube();
+        for (int i = 0; i < N_URFtoDLF; i++) {
+            a.setURFtoDLF(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.cornerMultiply(CubieCube.MOVE_CUBE[j]);
+                    URFtoDLF_Move.put(i * N_MOVE + 3 * j + k, (short) a.getURFtoDLF());
+                }
+                a.cornerMultiply(CubieCube.MOVE_CUBE[j]);
+            }
+        }
+
+        a = new CubieCube();
+        for (int i = 0; i < N_URtoDF; i++) {
+            a.setURtoDF(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+                    // Only valid for phase 2 moves; phase 1 moves can leave the short range
+                    URtoDF_Move.put(i * N_MOVE + 3 * j + k, (short) a.getURtoDF());
+                }
+                a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+            }
+        }
+
+        a = new CubieCube();
+        for (int i = 0; i < N_URtoUL; i++) {
+            a.setURtoUL(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+                    URtoUL_Move.put(i * N_MOVE + 3 * j + k, (short) a.getURtoUL());
+                }
+                a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+            }
+        }
+
+        a = new CubieCube();
+        for (int i = 0; i < N_UBtoDF; i++) {
+            a.setUBtoDF(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+                    UBtoDF_Move.put(i * N_MOVE + 3 * j + k, (short) a.getUBtoDF());
+                }
+                a.edgeMultiply(CubieCube.MOVE_CUBE[j]);
+            }
+        }
+
+        for (int uRtoUL = 0; uRtoUL < N_MERGE; uRtoUL++) {
+            for (int uBtoDF = 0; uBtoDF < N_MERGE; uBtoDF++) {
+                MergeURtoULandUBtoDF.put(uRtoUL * N_MERGE + uBtoDF, (short) CubieCube.getURtoDF(uRtoUL, uBtoDF));
+            }
+        }
+    }
+
+    private void buildPruningTables() {
+        // Phase 2: permutation of the corners and the UD-slice edges
+        fill(Slice_URFtoDLF_Parity_Prun, (byte) -1);
+        setPruning(Slice_URFtoDLF_Parity_Prun, 0, 0);
+        int done = 1;
+        for (int depth = 0; done != N_SLICE2 * N_URFtoDLF * N_PARITY; depth++) {
+            for (int i = 0; i < N_SLICE2 * N_URFtoDLF * N_PARITY; i++) {
+                if (getPruning(Slice_URFtoDLF_Parity_Prun, i) != depth) {
+                    continue;
+                }
+                int parity = i % 2;
+                int URFtoDLF = (i / 2) / N_SLICE2;
+                int slice = (i / 2) % N_SLICE2;
+                for (int j = 0; j < N_MOVE; j++) {
+                    if (!PHASE2_MOVE[j]) {
+                        continue;
+                    }
+                    int index = (N_SLICE2 * URFtoDLF_Move(URFtoDLF, j) + FRtoBR_Move(slice, j)) * 2 + parityMove(parity, j);
+                    if (getPruning(Slice_URFtoDLF_Parity_Prun, index) == 0x0f) {
+                        setPruning(Slice_URFtoDLF_Parity_Prun, index, depth + 1);
+                        done++;
+                    }
+                }
+            }
+        }
+
+        // Phase 2: permutation of the edges
+        fill(Slice_URtoDF_Parity_Prun, (byte) -1);
+        setPruning(Slice_URtoDF_Parity_Prun, 0, 0);
+        done = 1;
+        for (int depth = 0; done != N_SLICE2 * N_URtoDF * N_PARITY; depth++) {
+            for (int i = 0; i < N_SLICE2 * N_URtoDF * N_PARITY; i++) {
+                if (getPruning(Slice_URtoDF_Parity_Prun, i) != depth) {
+                    continue;
+                }
+                int parity = i % 2;
+                int URtoDF = (i / 2) / N_SLICE2;
+                int slice = (i / 2) % N_SLICE2;
+                for (int j = 0; j < N_MOVE; j++) {
+                    if (!PHASE2_MOVE[j]) {
+                        continue;
+                    }
+                    int index = (N_SLICE2 * URtoDF_Move(URtoDF, j) + FRtoBR_Move(slice, j)) * 2 + parityMove(parity, j);
+                    if (getPruning(Slice_URtoDF_Parity_Prun, index) == 0x0f) {
+                        setPruning(Slice_URtoDF_Parity_Prun, index, depth + 1);
+                        done++;
+                    }
+                }
+            }
+        }
+
+        // Phase 1: corner twist and the position (not permutation) of the UD-slice edges
+        fill(Slice_Twist_Prun, (byte) -1);
+        setPruning(Slice_Twist_Prun, 0, 0);
+        done = 1;
+        for (int depth = 0; done != N_SLICE1 * N_TWIST; depth++) {
+            for (int i = 0; i < N_SLICE1 * N_TWIST; i++) {
+                if (getPruning(Slice_Twist_Prun, i) != depth) {
+                    continue;
+                }
+                int twist = i / N_SLICE1, slice = i % N_SLICE1;
+                for (int j = 0; j < N_MOVE; j++) {
+                    int index = N_SLICE1 * twistMove(twist, j) + FRtoBR_Move(slice * 24, j) / 24;
+                    if (getPruning(Slice_Twist_Prun, index) == 0x0f) {
+                        setPruning(Slice_Twist_Prun, index, depth + 1);
+                        done++;
+                    }
+                }
+            }
+        }
+
+        // Phase 1: edge flip and the position of the UD-slice edges
+        fill(Slice_Flip_Prun, (byte) -1);
+        setPruning(Slice_Flip_Prun, 0, 0);
+        done = 1;
+        for (int depth = 0; done != N_SLICE1 * N_FLIP; depth++) {
+            for (int i = 0; i < N_SLICE1 * N_FLIP; i++) {
+                if (getPruning(Slice_Flip_Prun, i) != depth) {
+                    continue;
+                }
+                int flip = i / N_SLICE1, slice = i % N_SLICE1;
+                for (int j = 0; j < N_MOVE; j++) {
+                    int index = N_SLICE1 * flipMove(flip, j) + FRtoBR_Move(slice * 24, j) / 24;
+                    if (getPruning(Slice_Flip_Prun, index) == 0x0f) {
+                        setPruning(Slice_Flip_Prun, index, depth + 1);
+                        done++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates a table file, e.g. {@code java -cp bin com.ramteja.rubik.CoordTables tables.bin},
+     * to be used with {@code -Drubik.tables=tables.bin}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CoordTables <table file>");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        new CoordTables().save(Paths.get(args[0]));
+        System.out.println("Wrote " + args[0] + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
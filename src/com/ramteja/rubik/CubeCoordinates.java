@@ -0,0 +1,97 @@
+package com.ramteja.rubik;
+
+/**
+ * The coordinates a two-phase search starts from, followed move by move.
+ *
+ * Solving from a facelet string means parsing it, rebuilding the cubies and computing seven
+ * coordinates from them. When the moves are known, the coordinates can instead follow them through
+ * the {@link CoordTables} move tables at one lookup each per move, and
+ * {@link TwoPhaseSolver#solution(CubeCoordinates, int, long, boolean)} starts from them directly.
+ * Since only face turns can be applied, the coordinates always describe a solvable cube.
+ */
+public final class CubeCoordinates {
+    private static final CubeCoordinates SOLVED = new CubeCoordinates(new CubieCube());
+
+    int flip;
+    int twist;
+    int parity;
+    int FRtoBR;
+    int URFtoDLF;
+    int URtoUL;
+    int UBtoDF;
+
+    /**
+     * Creates the coordinates of a solved cube. Moving them needs the solver tables, which are
+     * loaded on the first move if no solver has done so yet.
+     */
+    public CubeCoordinates() {
+        reset();
+    }
+
+    CubeCoordinates(CubieCube cc) {
+        set(cc);
+    }
+
+    // A copy that moves independently of the original
+    CubeCoordinates(CubeCoordinates other) {
+        flip = other.flip;
+        twist = other.twist;
+        parity = other.parity;
+        FRtoBR = other.FRtoBR;
+        URFtoDLF = other.URFtoDLF;
+        URtoUL = other.URtoUL;
+        UBtoDF = other.UBtoDF;
+    }
+
+    void set(CubieCube cc) {
+        flip = cc.getFlip();
+        twist = cc.getTwist();
+        parity = cc.cornerParity();
+        FRtoBR = cc.getFRtoBR();
+        URFtoDLF = cc.getURFtoDLF();
+        URtoUL = cc.getURtoUL();
+        UBtoDF = cc.getUBtoDF();
+    }
+
+    /**
+     * Returns to the solved cube.
+     */
+    public void reset() {
+        flip = SOLVED.flip;
+        twist = SOLVED.twist;
+        parity = SOLVED.parity;
+        FRtoBR = SOLVED.FRtoBR;
+        URFtoDLF = SOLVED.URFtoDLF;
+        URtoUL = SOLVED.URtoUL;
+        UBtoDF = SOLVED.UBtoDF;
+    }
+
+    /**
+     * Applies a move code (3 * face + power - 1).
+     */
+    public void move(int move) {
+        CoordTables tables = CoordTables.get();
+        flip = tables.flipMove(flip, move);
+        twist = tables.twistMove(twist, move);
+        parity = CoordTables.parityMove(parity, move);
+        FRtoBR = tables.FRtoBR_Move(FRtoBR, move);
+        URFtoDLF = tables.URFtoDLF_Move(URFtoDLF, move);
+        URtoUL = tables.URtoUL_Move(URtoUL, move);
+        UBtoDF = tables.UBtoDF_Move(UBtoDF, move);
+    }
+
+    /**
+     * Applies every move of a compiled sequence.
+     */
+    public void apply(Algorithm algorithm) {
+        for (int i = 0, n = algorithm.length(); i < n; i++) {
+            move(algorithm.moveAt(i));
+        }
+    }
+
+    public boolean isSolved() {
+        return flip == SOLVED.flip && twist == SOLVED.twist && parity == SOLVED.parity
+                && FRtoBR == SOLVED.FRtoBR && URFtoDLF == SOLVED.URFtoDLF
+                && URtoUL == SOLVED.URtoUL && UBtoDF == SOLVED.UBtoDF;
+    }
+}
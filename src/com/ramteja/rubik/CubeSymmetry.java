@@ -0,0 +1,129 @@
+package com.ramteja.rubik;
+
+/**
+ * The 48 symmetries of the cube (24 rotations, each optionally mirrored) acting on facelet states.
+ *
+ * Every facelet is given the 3D position of its sticker, with x pointing to R, y to U and z to F.
+ * A symmetry is a signed permutation of the three axes; it moves each sticker to a new position and
+ * recolors it with the face its old color's face is carried to, so the solved cube maps to itself.
+ * A move sequence that solves the transformed state solves the original once every move is mapped
+ * back through the symmetry, with turn directions reversed for mirror symmetries.
+ */
+final class CubeSymmetry {
+    static final int COUNT = 48;
+
+    /** The index of the identity symmetry. */
+    static final int IDENTITY;
+
+    // FACELET[g][i]: the facelet that facelet i is carried to by symmetry g
+    private static final byte[][] FACELET = new byte[COUNT][54];
+
+    // FACE[g][f]: the face that face f is carried to by symmetry g
+    private static final byte[][] FACE = new byte[COUNT][6];
+
+    // UNMAP_MOVE[g][m]: the move that, before applying symmetry g, has the effect of move m after it
+    private static final byte[][] UNMAP_MOVE = new byte[COUNT][Moves.N_MOVES];
+
+    // Outward normals of the faces U R F D L B
+    private static final int[][] NORMAL = {{0, 1, 0}, {1, 0, 0}, {0, 0, 1}, {0, -1, 0}, {-1, 0, 0}, {0, 0, -1}};
+
+    static {
+        int[][] position = new int[54][];
+        for (int i = 0; i < 54; i++) {
+            position[i] = stickerPosition(i / 9, (i % 9) / 3, i % 3);
+        }
+        int[][] axisOrders = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        int identity = -1;
+        int g = 0;
+        for (int[] axes : axisOrders) {
+            for (int signs = 0; signs < 8; signs++) {
+                int[][] matrix = new int[3][3];
+                for (int row = 0; row < 3; row++) {
+                    matrix[row][axes[row]] = (signs >> row & 1) == 0 ? 1 : -1;
+                }
+                for (int i = 0; i < 54; i++) {
+                    FACELET[g][i] = (byte) find(position, transform(matrix, position[i]));
+                }
+                for (int f = 0; f < 6; f++) {
+                    FACE[g][f] = (byte) find(NORMAL, transform(matrix, NORMAL[f]));
+                }
+                boolean mirror = determinant(matrix) < 0;
+                for (int m = 0; m < Moves.N_MOVES; m++) {
+                    int face = Moves.face(m);
+                    int power = Moves.power(m);
+                    int originalFace = 0;
+                    while (FACE[g][originalFace] != face) {
+                        originalFace++;
+                    }
+                    UNMAP_MOVE[g][m] = (byte) (3 * originalFace + (mirror ? 4 - power : power) - 1);
+                }
+                if (signs == 0 && axes[0] == 0 && axes[1] == 1) {
+                    identity = g;
+                }
+                g++;
+            }
+        }
+        IDENTITY = identity;
+    }
+
+    private CubeSymmetry() {
+    }
+
+    /**
+     * Writes the state {@code state} transformed by symmetry {@code g} into {@code out}.
+     * Both arrays hold face indices in {@link RubikCube#toString()} facelet order.
+     */
+    static void apply(int g, byte[] state, byte[] out) {
+        byte[] facelet = FACELET[g];
+        byte[] face = FACE[g];
+        for (int i = 0; i < 54; i++) {
+            out[facelet[i]] = face[state[i]];
+        }
+    }
+
+    /**
+     * Maps a move code from the frame of a state transformed by symmetry {@code g} back to the
+     * frame of the original state.
+     */
+    static int unmapMove(int g, int move) {
+        return UNMAP_MOVE[g][move];
+    }
+
+    // Sticker position on face f, row r, column c, scaled so stickers sit at odd coordinates
+    // on the cube surface: components in {-2, 0, 2} along the face and +-3 along its normal
+    private static int[] stickerPosition(int f, int r, int c) {
+        switch (f) {
+            case 0: return new int[] {2 * (c - 1), 3, 2 * (r - 1)};   // U, back row first
+            case 1: return new int[] {3, 2 * (1 - r), 2 * (1 - c)};   // R, front column first
+            case 2: return new int[] {2 * (c - 1), 2 * (1 - r), 3};   // F
+            case 3: return new int[] {2 * (c - 1), -3, 2 * (1 - r)};  // D, front row first
+            case 4: return new int[] {-3, 2 * (1 - r), 2 * (c - 1)};  // L, back column first
+            default: return new int[] {2 * (1 - c), 2 * (1 - r), -3}; // B, right column first
+        }
+    }
+
+    private static int[] transform(int[][] matrix, int[] v) {
+        int[] result = new int[3];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                result[row] += matrix[row][col] * v[col];
+            }
+        }
+        return result;
+    }
+
+    private static int determinant(int[][] m) {
+        return m[0][0] * (m[1][1] * m[2][2] - m[1][2] * m[2][1])
+                - m[0][1] * (m[1][0] * m[2][2] - m[1][2] * m[2][0])
+                + m[0][2] * (m[1][0] * m[2][1] - m[1][1] * m[2][0]);
+    }
+
+    private static int find(int[][] vectors, int[] v) {
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i][0] == v[0] && vectors[i][1] == v[1] && vectors[i][2] == v[2]) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No sticker at the transformed position");
+    }
+}
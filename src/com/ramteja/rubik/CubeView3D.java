@@ -0,0 +1,357 @@
+package com.ramteja.rubik;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.image.VolatileImage;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * An isometric 3D view of a cube, seen from the corner between U, F and R.
+ *
+ * The screen polygons of the 27 visible stickers are computed once per component size. Frames are
+ * drawn into a {@link VolatileImage} back buffer, which can live in video memory, and a repaint
+ * refills only the stickers whose color changed since the last one. A turn passed to
+ * {@link #turn(int, double)} is interpolated by a timer at about 60 frames per second that runs
+ * only while a turn is on screen, so an idle or slowly playing cube costs next to nothing. Turns
+ * too short to be seen are shown as a jump.
+ *
+ * Must be used on the event dispatch thread.
+ */
+final class CubeView3D extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    private static final int FRAME_MILLIS = 16;
+
+    // Turns shorter than three frames are drawn as a jump
+    private static final int MIN_TURN_MILLIS = 3 * FRAME_MILLIS;
+
+    // Indexed by face in U R F D L B order, as in the flat view
+    private static final Color[] COLORS = { Color.WHITE, Color.RED, Color.GREEN, Color.YELLOW, Color.ORANGE, Color.BLUE };
+
+    private static final Color BODY = Color.BLACK;
+
+    // U, R and F, the faces turned towards the viewer, are facelets 0 to 26
+    private static final int VISIBLE = 27;
+
+    // Half the width of a sticker, on cubies two units wide
+    private static final double STICKER = 0.85;
+
+    // The view direction: x towards R, y towards U, z towards F, looking at the origin from (1, 1, 1)
+    private static final double COS30 = Math.cos(Math.PI / 6);
+
+    private final RubikCube cube;
+
+    // Each facelet's center, column and row directions, in cube coordinates with the corners at +-3
+    private final double[][] center = new double[54][];
+    private final double[][] across = new double[54][];
+    private final double[][] down = new double[54][];
+
+    // Screen polygons of the visible stickers and the black cells behind them, for the current size
+    private final Polygon[] stickers = new Polygon[VISIBLE];
+    private final Polygon[] cells = new Polygon[VISIBLE];
+    private final Polygon[] body = new Polygon[3];
+    private int cachedWidth = -1;
+    private int cachedHeight = -1;
+    private double scale;
+    private double originX;
+    private double originY;
+
+    // The back buffer, the colors it shows, and whether it must be drawn from scratch
+    private VolatileImage buffer;
+    private final byte[] drawn = new byte[VISIBLE];
+    private boolean bufferStale = true;
+
+    // The turn on screen: its move, timing, and the cube state it ends in (-1 when none)
+    private final Timer timer;
+    private int turnMove = -1;
+    private long turnStart;
+    private double turnMillis;
+    private long turnHash;
+
+    CubeView3D(RubikCube cube) {
+        this.cube = cube;
+        for (int face = 0; face < 6; face++) {
+            for (int i = 0; i < 9; i++) {
+                int f = face * 9 + i;
+                double[] origin = position(face, i / 3, i % 3);
+                double[] right = position(face, i / 3, i % 3 + 1);
+                double[] below = position(face, i / 3 + 1, i % 3);
+                center[f] = origin;
+                across[f] = new double[3];
+                down[f] = new double[3];
+                for (int k = 0; k < 3; k++) {
+                    across[f][k] = (right[k] - origin[k]) / 2;
+                    down[f][k] = (below[k] - origin[k]) / 2;
+                }
+            }
+        }
+        setOpaque(true);
+        timer = new Timer(FRAME_MILLIS, e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    // The center of a facelet, with each face seen from outside as in RubikCube.toString().
+    // Rows and columns one past the face are used to find its directions.
+    private static double[] position(int face, int row, int col) {
+        switch (face) {
+            case 0: return new double[] {2 * col - 2, 3, 2 * row - 2};
+            case 1: return new double[] {3, 2 - 2 * row, 2 - 2 * col};
+            case 2: return new double[] {2 * col - 2, 2 - 2 * row, 3};
+            case 3: return new double[] {2 * col - 2, -3, 2 - 2 * row};
+            case 4: return new double[] {-3, 2 - 2 * row, 2 * col - 2};
+            default: return new double[] {2 - 2 * col, 2 - 2 * row, -3};
+        }
+    }
+
+    /**
+     * Shows a move that was just applied to the cube as a turn of its layer, interpolated over
+     * the given time. Any other change to the cube before the turn ends cuts it short.
+     * @param move The move code, 3 * face + power - 1 with faces ordered U R F D L B.
+     */
+    void turn(int move, double millis) {
+        if (millis < MIN_TURN_MILLIS) {
+            turnMove = -1;
+            timer.stop(); // a longer turn may still be running
+        } else {
+            turnMove = move;
+            turnStart = System.currentTimeMillis();
+            turnMillis = millis;
+            turnHash = cube.stateHash();
+            timer.start();
+        }
+        repaint();
+    }
+
+    // Timer frame. A hidden view is never painted, so the timer would never be stopped there;
+    // the turn is dropped instead, and the view shows the still cube when it is shown again.
+    private void tick() {
+        if (isShowing()) {
+            repaint();
+        } else {
+            turnMove = -1;
+            timer.stop();
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (width != cachedWidth || height != cachedHeight) {
+            layoutPolygons(width, height);
+        }
+        double progress = -1;
+        if (turnMove >= 0) {
+            progress = (System.currentTimeMillis() - turnStart) / turnMillis;
+            if (progress >= 1 || cube.stateHash() != turnHash) {
+                turnMove = -1;
+                progress = -1;
+                timer.stop();
+            }
+        }
+
+        do {
+            if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+                buffer = createVolatileImage(width, height);
+                bufferStale = true;
+            }
+            int status = buffer.validate(getGraphicsConfiguration());
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                buffer = createVolatileImage(width, height);
+                bufferStale = true;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                bufferStale = true;
+            }
+            Graphics2D bg = buffer.createGraphics();
+            try {
+                bg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                if (progress >= 0) {
+                    drawTurn(bg, progress);
+                    bufferStale = true; // the next still frame starts over
+                } else {
+                    drawStill(bg);
+                }
+            } finally {
+                bg.dispose();
+            }
+            g.drawImage(buffer, 0, 0, null);
+        } while (buffer.contentsLost());
+    }
+
+    // ************************************** Still frames *****************************************
+
+    // Projects the visible stickers, the cells behind them and the three visible faces of the body
+    private void layoutPolygons(int width, int height) {
+        cachedWidth = width;
+        cachedHeight = height;
+        // Corners are 3 * sqrt(3) units from the center, which projects to at most 9 / sqrt(2)
+        // units on screen however a layer is turned
+        scale = 0.95 * Math.min(width, height) / (2 * 9 / Math.sqrt(2));
+        originX = width / 2.0;
+        originY = height / 2.0;
+        for (int f = 0; f < VISIBLE; f++) {
+            stickers[f] = project(quad(center[f], across[f], down[f], STICKER), 0, 0);
+            cells[f] = project(quad(center[f], across[f], down[f], 1), 0, 0);
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            body[axis] = project(box(-3, 3, -3, 3, -3, 3, axis, 1), 0, 0);
+        }
+        bufferStale = true;
+    }
+
+    // Refills the stickers that changed since the last still frame, or everything after a turn or a lost buffer
+    private void drawStill(Graphics2D g) {
+        boolean all = bufferStale;
+        if (all) {
+            g.setColor(getBackground() != null ? getBackground() : Color.LIGHT_GRAY);
+            g.fillRect(0, 0, cachedWidth, cachedHeight);
+            g.setColor(BODY);
+            for (Polygon face : body) {
+                g.fillPolygon(face);
+            }
+        }
+        for (int f = 0; f < VISIBLE; f++) {
+            byte color = (byte) cube.getFacelet(f);
+            if (all || drawn[f] != color) {
+                // The cell behind goes first, so antialiased edges never build up
+                g.setColor(BODY);
+                g.fillPolygon(cells[f]);
+                g.setColor(COLORS[color]);
+                g.fillPolygon(stickers[f]);
+                drawn[f] = color;
+            }
+        }
+        bufferStale = false;
+    }
+
+    // ************************************** Turns ************************************************
+
+    // Draws the cube with the turning layer rotated back by the part of the turn still to come.
+    // The layer and the rest of the cube are two boxes on either side of a plane, so drawing the
+    // one away from the viewer first, each with its visible faces only, hides everything correctly.
+    private void drawTurn(Graphics2D g, double progress) {
+        int face = Moves.face(turnMove);
+        int power = Moves.power(turnMove);
+        int axis = face % 3 == 0 ? 1 : face % 3 == 1 ? 0 : 2;
+        int sign = face < 3 ? 1 : -1;
+        double eased = progress * progress * (3 - 2 * progress);
+        double quarters = power == 3 ? -1 : power;
+        double angle = sign * quarters * (Math.PI / 2) * (1 - eased);
+
+        g.setColor(getBackground() != null ? getBackground() : Color.LIGHT_GRAY);
+        g.fillRect(0, 0, cachedWidth, cachedHeight);
+        // The viewer is on the positive side of every axis
+        if (sign > 0) {
+            drawBlock(g, axis, sign, false, 0);
+            drawBlock(g, axis, sign, true, angle);
+        } else {
+            drawBlock(g, axis, sign, true, angle);
+            drawBlock(g, axis, sign, false, 0);
+        }
+    }
+
+    // Draws the turning layer (or the rest of the cube) as a black box with its stickers
+    private void drawBlock(Graphics2D g, int axis, int sign, boolean layer, double angle) {
+        double[] low = {-3, -3, -3};
+        double[] high = {3, 3, 3};
+        // The cut between the layer and the rest is one unit from the center, towards the turning face
+        if (layer == (sign > 0)) {
+            low[axis] = sign;
+        } else {
+            high[axis] = sign;
+        }
+        g.setColor(BODY);
+        for (int boxFace = 0; boxFace < 6; boxFace++) {
+            int faceAxis = boxFace % 3;
+            int faceSign = boxFace < 3 ? 1 : -1;
+            double[] normal = new double[3];
+            normal[faceAxis] = faceSign;
+            if (facesViewer(rotate(normal, axis, angle))) {
+                g.fillPolygon(project(box(low[0], high[0], low[1], high[1], low[2], high[2], faceAxis, faceSign), axis, angle));
+            }
+        }
+        for (int f = 0; f < 54; f++) {
+            boolean inLayer = sign * center[f][axis] >= 2;
+            if (inLayer != layer) {
+                continue;
+            }
+            double[] normal = new double[3];
+            int faceAxis = f / 9 % 3 == 0 ? 1 : f / 9 % 3 == 1 ? 0 : 2;
+            normal[faceAxis] = f < 27 ? 1 : -1;
+            if (facesViewer(rotate(normal, axis, angle))) {
+                g.setColor(COLORS[cube.getFacelet(f)]);
+                g.fillPolygon(project(quad(center[f], across[f], down[f], STICKER), axis, angle));
+            }
+        }
+    }
+
+    private static boolean facesViewer(double[] normal) {
+        return normal[0] + normal[1] + normal[2] > 1e-9;
+    }
+
+    // ************************************** Geometry *********************************************
+
+    // The four corners of a square around a center, spanned by two half-width directions
+    private static double[][] quad(double[] c, double[] u, double[] v, double half) {
+        double[][] corners = new double[4][3];
+        double[] su = {-1, 1, 1, -1};
+        double[] sv = {-1, -1, 1, 1};
+        for (int i = 0; i < 4; i++) {
+            for (int k = 0; k < 3; k++) {
+                corners[i][k] = c[k] + half * (su[i] * u[k] + sv[i] * v[k]);
+            }
+        }
+        return corners;
+    }
+
+    // The four corners of one face of a box, on the given side of the given axis
+    private static double[][] box(double x0, double x1, double y0, double y1, double z0, double z1, int axis, int sign) {
+        double[] low = {x0, y0, z0};
+        double[] high = {x1, y1, z1};
+        int a = (axis + 1) % 3;
+        int b = (axis + 2) % 3;
+        double[][] corners = new double[4][3];
+        double[] sa = {0, 1, 1, 0};
+        double[] sb = {0, 0, 1, 1};
+        for (int i = 0; i < 4; i++) {
+            corners[i][axis] = sign > 0 ? high[axis] : low[axis];
+            corners[i][a] = sa[i] > 0 ? high[a] : low[a];
+            corners[i][b] = sb[i] > 0 ? high[b] : low[b];
+        }
+        return corners;
+    }
+
+    // Rotates a point about an axis by an angle, counter-clockwise seen from the positive side
+    private static double[] rotate(double[] p, int axis, double angle) {
+        if (angle == 0) {
+            return p;
+        }
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        switch (axis) {
+            case 0: return new double[] {p[0], p[1] * cos - p[2] * sin, p[1] * sin + p[2] * cos};
+            case 1: return new double[] {p[2] * sin + p[0] * cos, p[1], p[2] * cos - p[0] * sin};
+            default: return new double[] {p[0] * cos - p[1] * sin, p[0] * sin + p[1] * cos, p[2]};
+        }
+    }
+
+    // Rotates the corners about an axis (not at all for angle 0) and projects them onto the screen
+    private Polygon project(double[][] corners, int axis, double angle) {
+        int[] xs = new int[corners.length];
+        int[] ys = new int[corners.length];
+        for (int i = 0; i < corners.length; i++) {
+            double[] p = rotate(corners[i], axis, angle);
+            xs[i] = (int) Math.round(originX + scale * (p[0] - p[2]) * COS30);
+            ys[i] = (int) Math.round(originY + scale * ((p[0] + p[2]) * 0.5 - p[1]));
+        }
+        return new Polygon(xs, ys, corners.length);
+    }
+}
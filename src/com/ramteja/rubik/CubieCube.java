@@ -0,0 +1,659 @@
+package com.ramteja.rubik;
+
+/**
+ * The cube on the cubie level: which corner and edge cubie sits in each position, and how it is twisted.
+ *
+ * This follows the cubie model of Kociemba's two-phase solver (org.kociemba.twophase.CubieCube), which
+ * is package-private in twophase.jar, with cubies stored as byte indices so the solver tables can be
+ * built and queried from this package.
+ */
+final class CubieCube {
+    // Corner positions; corner URF e.g. has an U(p), a R(ight) and a F(ront) facelet
+    static final int URF = 0, UFL = 1, ULB = 2, UBR = 3, DFR = 4, DLF = 5, DBL = 6, DRB = 7;
+
+    // Edge positions
+    static final int UR = 0, UF = 1, UL = 2, UB = 3, DR = 4, DF = 5, DL = 6, DB = 7,
+            FR = 8, FL = 9, BL = 10, BR = 11;
+
+    // Facelets of each corner position, starting with the one that defines the orientation, then clockwise
+    static final int[][] CORNER_FACELET = {
+        {8, 9, 20}, {6, 18, 38}, {0, 36, 47}, {2, 45, 11},
+        {29, 26, 15}, {27, 44, 24}, {33, 53, 42}, {35, 17, 51}
+    };
+
+    // Facelets of each edge position, starting with the one that defines the orientation
+    static final int[][] EDGE_FACELET = {
+        {5, 10}, {7, 19}, {3, 37}, {1, 46}, {32, 16}, {28, 25},
+        {30, 43}, {34, 52}, {23, 12}, {21, 41}, {50, 39}, {48, 14}
+    };
+
+    // Colors of each corner and edge cubie in the same facelet order, as face indices U=0 R=1 F=2 D=3 L=4 B=5
+    static final int[][] CORNER_COLOR = {
+        {0, 1, 2}, {0, 2, 4}, {0, 4, 5}, {0, 5, 1}, {3, 2, 1}, {3, 4, 2}, {3, 5, 4}, {3, 1, 5}
+    };
+    static final int[][] EDGE_COLOR = {
+        {0, 1}, {0, 2}, {0, 4}, {0, 5}, {3, 1}, {3, 2}, {3, 4}, {3, 5}, {2, 1}, {2, 4}, {5, 4}, {5, 1}
+    };
+
+    // The six clockwise face turns U R F D L B on the cubie level
+    static final CubieCube[] MOVE_CUBE = {
+        new CubieCube(new byte[] {UBR, URF, UFL, ULB, DFR, DLF, DBL, DRB}, new byte[] {0, 0, 0, 0, 0, 0, 0, 0},
+                new byte[] {UB, UR, UF, UL, DR, DF, DL, DB, FR, FL, BL, BR}, new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}),
+        new CubieCube(new byte[] {DFR, UFL, ULB, URF, DRB, DLF, DBL, UBR}, new byte[] {2, 0, 0, 1, 1, 0, 0, 2},
+                new byte[] {FR, UF, UL, UB, BR, DF, DL, DB, DR, FL, BL, UR}, new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}),
+        new CubieCube(new byte[] {UFL, DLF, ULB, UBR, URF, DFR, DBL, DRB}, new byte[] {1, 2, 0, 0, 2, 1, 0, 0},
+                new byte[] {UR, FL, UL, UB, DR, FR, DL, DB, UF, DF, BL, BR}, new byte[] {0, 1, 0, 0, 0, 1, 0, 0, 1, 1, 0, 0}),
+        new CubieCube(new byte[] {URF, UFL, ULB, UBR, DLF, DBL, DRB, DFR}, new byte[] {0, 0, 0, 0, 0, 0, 0, 0},
+                new byte[] {UR, UF, UL, UB, DF, DL, DB, DR, FR, FL, BL, BR}, new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}),
+        new CubieCube(new byte[] {URF, ULB, DBL, UBR, DFR, UFL, DLF, DRB}, new byte[] {0, 1, 2, 0, 0, 2, 1, 0},
+                new byte[] {UR, UF, BL, UB, DR, DF, FL, DB, FR, UL, DL, BR}, new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}),
+        new CubieCube(new byte[] {URF, UFL, UBR, DRB, DFR, DLF, ULB, DBL}, new byte[] {0, 0, 1, 2, 0, 0, 2, 1},
+                new byte[] {UR, UF, UL, BR, DR, DF, DL, BL, FR, FL, UB, DB}, new byte[] {0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 1, 1})
+    };
+
+    final byte[] cp = {URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB}; // corner permutation
+    final byte[] co = new byte[8];                             // corner orientation
+    final byte[] ep = {UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR}; // edge permutation
+    final byte[] eo = new byte[12];                            // edge orientation
+
+    /**
+     * Creates a solved cube.
+     */
+    CubieCube() {
+    }
+
+    CubieCube(byte[] cp, byte[] co, byte[] ep, byte[] eo) {
+        System.arraycopy(cp, 0, this.cp, 0, 8);
+        System.arraycopy(co, 0, this.co, 0, 8);
+        System.arraycopy(ep, 0, this.ep, 0, 12);
+        System.arraycopy(eo, 0, this.eo, 0, 12);
+    }
+
+    /**
+     * Builds the cubie cube for a facelet array of face indices (U=0 R=1 F=2 D=3 L=4 B=5).
+     * Unrecognized cubies are left as duplicates, which {@link #verify()} reports.
+     */
+    static CubieCube fromFacelets(byte[] f) {
+        CubieCube cc = new CubieCube();
+        for (int i = 0; i < 8; i++) {
+            cc.cp[i] = URF; // invalidate corners
+        }
+        for (int i = 0; i < 12; i++) {
+            cc.ep[i] = UR; // and edges
+        }
+        for (int i = 0; i < 8; i++) {
+            // get the colors of the cubie at corner i, starting with U/D
+            int ori;
+            for (ori = 0; ori < 3; ori++) {
+                int col = f[CORNER_FACELET[i][ori]];
+                if (col == 0 || col == 3) {
+                    break;
+                }
+            }
+            int col1 = f[CORNER_FACELET[i][(ori + 1) % 3]];
+            int col2 = f[CORNER_FACELET[i][(ori + 2) % 3]];
+            for (int j = 0; j < 8; j++) {
+                if (col1 == CORNER_COLOR[j][1] && col2 == CORNER_COLOR[j][2]) {
+                    // in corner position i we have corner cubie j
+                    cc.cp[i] = (byte) j;
+                    cc.co[i] = (byte) (ori % 3);
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < 12; i++) {
+            int col0 = f[EDGE_FACELET[i][0]];
+            int col1 = f[EDGE_FACELET[i][1]];
+            for (int j = 0; j < 12; j++) {
+                if (col0 == EDGE_COLOR[j][0] && col1 == EDGE_COLOR[j][1]) {
+                    cc.ep[i] = (byte) j;
+                    cc.eo[i] = 0;
+                    break;
+                }
+                if (col0 == EDGE_COLOR[j][1] && col1 == EDGE_COLOR[j][0]) {
+                    cc.ep[i] = (byte) j;
+                    cc.eo[i] = 1;
+                    break;
+                }
+            }
+        }
+        return cc;
+    }
+
+    /**
+     * Writes the facelet colors (face indices) of this cube into {@code f}, centers included.
+     */
+    void toFacelets(byte[] f) {
+        for (int i = 0; i < 6; i++) {
+            f[9 * i + 4] = (byte) i;
+        }
+        for (int i = 0; i < 8; i++) {
+            int j = cp[i]; // corner cubie j is at corner position i
+            int ori = co[i];
+            for (int n = 0; n < 3; n++) {
+                f[CORNER_FACELET[i][(n + ori) % 3]] = (byte) CORNER_COLOR[j][n];
+            }
+        }
+        for (int i = 0; i < 12; i++) {
+            int j = ep[i]; // edge cubie j is at edge position i
+            int ori = eo[i];
+            for (int n = 0; n < 2; n++) {
+                f[EDGE_FACELET[i][(n + ori) % 2]] = (byte) EDGE_COLOR[j][n];
+            }
+        }
+    }
+
+    // ************************************** Multiplication ***************************************
+
+    /**
+     * Multiplies this cube with {@code b}, restricted to the corners (i.e. applies b after this cube).
+     */
+    void cornerMultiply(CubieCube b) {
+        byte[] cPerm = new byte[8];
+        byte[] cOri = new byte[8];
+        for (int corn = 0; corn < 8; corn++) {
+            cPerm[corn] = cp[b.cp[corn]];
+            int ori = co[b.cp[corn]] + b.co[corn];
+            cOri[corn] = (byte) (ori >= 3 ? ori - 3 : ori);
+        }
+        System.arraycopy(cPerm, 0, cp, 0, 8);
+        System.arraycopy(cOri, 0, co, 0, 8);
+    }
+
+    /**
+     * Multiplies this cube with {@code b}, restricted to the edges.
+     */
+    void edgeMultiply(CubieCube b) {
+        byte[] ePerm = new byte[12];
+        byte[] eOri = new byte[12];
+        for (int edge = 0; edge < 12; edge++) {
+            ePerm[edge] = ep[b.ep[edge]];
+            eOri[edge] = (byte) ((b.eo[edge] + eo[b.ep[edge]]) % 2);
+        }
+        System.arraycopy(ePerm, 0, ep, 0, 12);
+        System.arraycopy(eOri, 0, eo, 0, 12);
+    }
+
+    void multiply(CubieCube b) {
+        cornerMultiply(b);
+        edgeMultiply(b);
+    }
+
+    /**
+     * Applies a move code (3 * face + power - 1) on the cubie level.
+     */
+    void move(int move) {
+        CubieCube turn = MOVE_CUBE[move / 3];
+        for (int k = move % 3; k >= 0; k--) {
+            multiply(turn);
+        }
+    }
+
+    // ************************************** Coordinates ******************************************
+
+    // n choose k
+    static int cnk(int n, int k) {
+        if (n < k) {
+            return 0;
+        }
+        if (k > n / 2) {
+            k = n - k;
+        }
+        int s = 1;
+        for (int i = n, j = 1; i != n - k; i--, j++) {
+            s *= i;
+            s /= j;
+        }
+        return s;
+    }
+
+    // Left rotation of all array elements between l and r
+    private static void rotateLeft(byte[] arr, int l, int r) {
+        byte temp = arr[l];
+        for (int i = l; i < r; i++) {
+            arr[i] = arr[i + 1];
+        }
+        arr[r] = temp;
+    }
+
+    // Right rotation of all array elements between l and r
+    private static void rotateRight(byte[] arr, int l, int r) {
+        byte temp = arr[r];
+        for (int i = r; i > l; i--) {
+            arr[i] = arr[i - 1];
+        }
+        arr[l] = temp;
+    }
+
+    // The twist of the 8 corners. 0 <= twist < 3^7
+    int getTwist() {
+        int ret = 0;
+        for (int i = URF; i < DRB; i++) {
+            ret = 3 * ret + co[i];
+        }
+        return ret;
+    }
+
+    void setTwist(int twist) {
+        int twistParity = 0;
+        for (int i = DRB - 1; i >= URF; i--) {
+            twistParity += co[i] = (byte) (twist % 3);
+            twist /= 3;
+        }
+        co[DRB] = (byte) ((3 - twistParity % 3) % 3);
+    }
+
+    // The flip of the 12 edges. 0 <= flip < 2^11
+    int getFlip() {
+        int ret = 0;
+        for (int i = UR; i < BR; i++) {
+            ret = 2 * ret + eo[i];
+        }
+        return ret;
+    }
+
+    void setFlip(int flip) {
+        int flipParity = 0;
+        for (int i = BR - 1; i >= UR; i--) {
+            flipParity += eo[i] = (byte) (flip % 2);
+            flip /= 2;
+        }
+        eo[BR] = (byte) ((2 - flipParity % 2) % 2);
+    }
+
+    // Parity of the corner permutation
+    int cornerParity() {
+        int s = 0;
+        for (int i = DRB; i >= URF + 1; i--) {
+            for (int j = i - 1; j >= URF; j--) {
+                if (cp[j] > cp[i]) {
+                    s++;
+                }
+            }
+        }
+        return s % 2;
+    }
+
+    // Parity of the edge permutation. Parity of corners and edges are the same if the cube is solvable.
+    int edgeParity() {
+        int s = 0;
+        for (int i = BR; i >= UR + 1; i--) {
+            for (int j = i - 1; j >= UR; j--) {
+                if (ep[j] > ep[i]) {
+                    s++;
+                }
+            }
+        }
+        return s % 2;
+    }
+
+    // Position and permutation of the UD-slice edges FR, FL, BL and BR. 0 <= FRtoBR < 11880
+    int getFRtoBR() {
+        int a = 0, x = 0;
+        byte[] edge4 = new byte[4];
+        // compute the index a < (12 choose 4) and the permutation array
+        for (int j = BR; j >= UR; j--) {
+            if (FR <= ep[j] && ep[j] <= BR) {
+                a += cnk(11 - j, x + 1);
+                edge4[3 - x++] = ep[j];
+            }
+        }
+        int b = 0;
+        for (int j = 3; j > 0; j--) { // compute the index b < 4! for the permutation
+            int k = 0;
+            while (edge4[j] != j + 8) {
+                rotateLeft(edge4, 0, j);
+                k++;
+            }
+            b = (j + 1) * b + k;
+        }
+        return 24 * a + b;
+    }
+
+    void setFRtoBR(int idx) {
+        byte[] sliceEdge = {FR, FL, BL, BR};
+        byte[] otherEdge = {UR, UF, UL, UB, DR, DF, DL, DB};
+        int b = idx % 24; // Permutation
+        int a = idx / 24; // Combination
+        for (int e = 0; e < 12; e++) {
+            ep[e] = DB; // Use DB to invalidate all edges
+        }
+        for (int j = 1, k; j < 4; j++) { // generate permutation from index b
+            k = b % (j + 1);
+            b /= j + 1;
+            while (k-- > 0) {
+                rotateRight(sliceEdge, 0, j);
+            }
+        }
+        int x = 3; // generate combination and set slice edges
+        for (int j = UR; j <= BR; j++) {
+            if (a - cnk(11 - j, x + 1) >= 0) {
+                ep[j] = sliceEdge[3 - x];
+                a -= cnk(11 - j, x-- + 1);
+            }
+        }
+        x = 0; // set the remaining edges UR..DB
+        for (int j = UR; j <= BR; j++) {
+            if (ep[j] == DB) {
+                ep[j] = otherEdge[x++];
+            }
+        }
+    }
+
+    // Permutation of all corners except DBL and DRB. 0 <= URFtoDLF < 20160
+    int getURFtoDLF() {
+        int a = 0, x = 0;
+        byte[] corner6 = new byte[6];
+        // compute the index a < (8 choose 6) and the corner permutation
+        for (int j = URF; j <= DRB; j++) {
+            if (cp[j] <= DLF) {
+                a += cnk(j, x + 1);
+                corner6[x++] = cp[j];
+            }
+        }
+        int b = 0;
+        for (int j = 5; j > 0; j--) { // compute the index b < 6! for the permutation in corner6
+            int k = 0;
+            while (corner6[j] != j) {
+                rotateLeft(corner6, 0, j);
+                k++;
+            }
+            b = (j + 1) * b + k;
+        }
+        return 720 * a + b;
+    }
+
+    void setURFtoDLF(int idx) {
+        byte[] corner6 = {URF, UFL, ULB, UBR, DFR, DLF};
+        byte[] otherCorner = {DBL, DRB};
+        int b = idx % 720; // Permutation
+        int a = idx / 720; // Combination
+        for (int c = 0; c < 8; c++) {
+            cp[c] = DRB; // Use DRB to invalidate all corners
+        }
+        for (int j = 1, k; j < 6; j++) { // generate permutation from index b
+            k = b % (j + 1);
+            b /= j + 1;
+            while (k-- > 0) {
+                rotateRight(corner6, 0, j);
+            }
+        }
+        int x = 5; // generate combination and set corners
+        for (int j = DRB; j >= 0; j--) {
+            if (a - cnk(j, x + 1) >= 0) {
+                cp[j] = corner6[x];
+                a -= cnk(j, x-- + 1);
+            }
+        }
+        x = 0;
+        for (int j = URF; j <= DRB; j++) {
+            if (cp[j] == DRB) {
+                cp[j] = otherCorner[x++];
+            }
+        }
+    }
+
+    // Permutation of the six edges UR, UF, UL, UB, DR, DF
+    int getURtoDF() {
+        int a = 0, x = 0;
+        byte[] edge6 = new byte[6];
+        // compute the index a < (12 choose 6) and the edge permutation
+        for (int j = UR; j <= BR; j++) {
+            if (ep[j] <= DF) {
+                a += cnk(j, x + 1);
+                edge6[x++] = ep[j];
+            }
+        }
+        int b = 0;
+        for (int j = 5; j > 0; j--) { // compute the index b < 6! for the permutation in edge6
+            int k = 0;
+            while (edge6[j] != j) {
+                rotateLeft(edge6, 0, j);
+                k++;
+            }
+            b = (j + 1) * b + k;
+        }
+        return 720 * a + b;
+    }
+
+    void setURtoDF(int idx) {
+        byte[] edge6 = {UR, UF, UL, UB, DR, DF};
+        byte[] otherEdge = {DL, DB, FR, FL, BL, BR};
+        int b = idx % 720; // Permutation
+        int a = idx / 720; // Combination
+        for (int e = 0; e < 12; e++) {
+            ep[e] = BR; // Use BR to invalidate all edges
+        }
+        for (int j = 1, k; j < 6; j++) { // generate permutation from index b
+            k = b % (j + 1);
+            b /= j + 1;
+            while (k-- > 0) {
+                rotateRight(edge6, 0, j);
+            }
+        }
+        int x = 5; // generate combination and set edges
+        for (int j = BR; j >= 0; j--) {
+            if (a - cnk(j, x + 1) >= 0) {
+                ep[j] = edge6[x];
+                a -= cnk(j, x-- + 1);
+            }
+        }
+        x = 0; // set the remaining edges DL..BR
+        for (int j = UR; j <= BR; j++) {
+            if (ep[j] == BR) {
+                ep[j] = otherEdge[x++];
+            }
+        }
+    }
+
+    // Merges the UR..UL and UB..DF coordinates into URtoDF, or -1 if the two sets of edges collide
+    static int getURtoDF(int idx1, int idx2) {
+        CubieCube a = new CubieCube();
+        CubieCube b = new CubieCube();
+        a.setURtoUL(idx1);
+        b.setUBtoDF(idx2);
+        for (int i = 0; i < 8; i++) {
+            if (a.ep[i] != BR) {
+                if (b.ep[i] != BR) { // collision
+                    return -1;
+                }
+                b.ep[i] = a.ep[i];
+            }
+        }
+        return b.getURtoDF();
+    }
+
+    // Permutation of the three edges UR, UF, UL
+    int getURtoUL() {
+        int a = 0, x = 0;
+        byte[] edge3 = new byte[3];
+        // compute the index a < (12 choose 3) and the edge permutation
+        for (int j = UR; j <= BR; j++) {
+            if (ep[j] <= UL) {
+                a += cnk(j, x + 1);
+                edge3[x++] = ep[j];
+            }
+        }
+        int b = 0;
+        for (int j = 2; j > 0; j--) { // compute the index b < 3! for the permutation in edge3
+            int k = 0;
+            while (edge3[j] != j) {
+                rotateLeft(edge3, 0, j);
+                k++;
+            }
+            b = (j + 1) * b + k;
+        }
+        return 6 * a + b;
+    }
+
+    void setURtoUL(int idx) {
+        byte[] edge3 = {UR, UF, UL};
+        int b = idx % 6; // Permutation
+        int a = idx / 6; // Combination
+        for (int e = 0; e < 12; e++) {
+            ep[e] = BR; // Use BR to invalidate all edges
+        }
+        for (int j = 1, k; j < 3; j++) { // generate permutation from index b
+            k = b % (j + 1);
+            b /= j + 1;
+            while (k-- > 0) {
+                rotateRight(edge3, 0, j);
+            }
+        }
+        int x = 2; // generate combination and set edges
+        for (int j = BR; j >= 0; j--) {
+            if (a - cnk(j, x + 1) >= 0) {
+                ep[j] = edge3[x];
+                a -= cnk(j, x-- + 1);
+            }
+        }
+    }
+
+    // Permutation of the three edges UB, DR, DF
+    int getUBtoDF() {
+        int a = 0, x = 0;
+        byte[] edge3 = new byte[3];
+        // compute the index a < (12 choose 3) and the edge permutation
+        for (int j = UR; j <= BR; j++) {
+            if (UB <= ep[j] && ep[j] <= DF) {
+                a += cnk(j, x + 1);
+                edge3[x++] = ep[j];
+            }
+        }
+        int b = 0;
+        for (int j = 2; j > 0; j--) { // compute the index b < 3! for the permutation in edge3
+            int k = 0;
+            while (edge3[j] != UB + j) {
+                rotateLeft(edge3, 0, j);
+                k++;
+            }
+            b = (j + 1) * b + k;
+        }
+        return 6 * a + b;
+    }
+
+    void setUBtoDF(int idx) {
+        byte[] edge3 = {UB, DR, DF};
+        int b = idx % 6; // Permutation
+        int a = idx / 6; // Combination
+        for (int e = 0; e < 12; e++) {
+            ep[e] = BR; // Use BR to invalidate all edges
+        }
+        for (int j = 1, k; j < 3; j++) { // generate permutation from index b
+            k = b % (j + 1);
+            b /= j + 1;
+            while (k-- > 0) {
+                rotateRight(edge3, 0, j);
+            }
+        }
+        int x = 2; // generate combination and set edges
+        for (int j = BR; j >= 0; j--) {
+            if (a - cnk(j, x + 1) >= 0) {
+                ep[j] = edge3[x];
+                a -= cnk(j, x-- + 1);
+            }
+        }
+    }
+
+    // Permutation of all 8 corners. 0 <= URFtoDLB < 8!
+    int getURFtoDLB() {
+        byte[] perm = cp.clone();
+        int b = 0;
+        for (int j = 7; j > 0; j--) { // compute the index b < 8! for the permutation in perm
+            int k = 0;
+            while (perm[j] != j) {
+                rotateLeft(perm, 0, j);
+                k++;
+            }
+            b = (j + 1) * b + k;
+        }
+        return b;
+    }
+
+    void setURFtoDLB(int idx) {
+        byte[] perm = {URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB};
+        for (int j = 1, k; j < 8; j++) {
+            k = idx % (j + 1);
+            idx /= j + 1;
+            while (k-- > 0) {
+                rotateRight(perm, 0, j);
+            }
+        }
+        System.arraycopy(perm, 0, cp, 0, 8);
+    }
+
+    // Permutation of all 12 edges. 0 <= URtoBR < 12!
+    int getURtoBR() {
+        byte[] perm = ep.clone();
+        int b = 0;
+        for (int j = 11; j > 0; j--) { // compute the index b < 12! for the permutation in perm
+            int k = 0;
+            while (perm[j] != j) {
+                rotateLeft(perm, 0, j);
+                k++;
+            }
+            b = (j + 1) * b + k;
+        }
+        return b;
+    }
+
+    void setURtoBR(int idx) {
+        byte[] perm = {UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR};
+        for (int j = 1, k; j < 12; j++) {
+            k = idx % (j + 1);
+            idx /= j + 1;
+            while (k-- > 0) {
+                rotateRight(perm, 0, j);
+            }
+        }
+        System.arraycopy(perm, 0, ep, 0, 12);
+    }
+
+    /**
+     * Checks the cube for solvability.
+     * @return 0: Cube is solvable<br>
+     *         -2: Not all 12 edges exist exactly once<br>
+     *         -3: Flip error: One edge has to be flipped<br>
+     *         -4: Not all corners exist exactly once<br>
+     *         -5: Twist error: One corner has to be twisted<br>
+     *         -6: Parity error: Two corners or two edges have to be exchanged
+     */
+    int verify() {
+        int sum = 0;
+        int[] edgeCount = new int[12];
+        for (int e = 0; e < 12; e++) {
+            edgeCount[ep[e]]++;
+        }
+        for (int i = 0; i < 12; i++) {
+            if (edgeCount[i] != 1) {
+                return -2;
+            }
+        }
+        for (int i = 0; i < 12; i++) {
+            sum += eo[i];
+        }
+        if (sum % 2 != 0) {
+            return -3;
+        }
+        int[] cornerCount = new int[8];
+        for (int c = 0; c < 8; c++) {
+            cornerCount[cp[c]]++;
+        }
+        for (int i = 0; i < 8; i++) {
+            if (cornerCount[i] != 1) {
+                return -4; // missing corners
+            }
+        }
+        sum = 0;
+        for (int i = 0; i < 8; i++) {
+            sum += co[i];
+        }
+        if (sum % 3 != 0) {
+            return -5; // twisted corner
+        }
+        if ((edgeParity() ^ cornerParity()) != 0) {
+            return -6; // parity error
+        }
+        return 0; // cube ok
+    }
+}
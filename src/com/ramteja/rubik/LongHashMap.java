@@ -0,0 +1,181 @@
+package com.ramteja.rubik;
+
+import java.util.Arrays;
+
+/**
+ * A map from longs to longs in two parallel open-addressing arrays, e.g. from
+ * {@link RubikCube#stateHash()} to a depth, an index or a packed move sequence. Nothing is boxed
+ * and nothing is allocated per entry.
+ *
+ * Collisions are resolved by linear probing, as in {@link LongHashSet}. The table doubles when it
+ * is three quarters full. Entries cannot be removed one by one, only all at once with
+ * {@link #clear()}. Not thread-safe.
+ */
+public final class LongHashMap {
+    // The free slot marker; the key 0 itself is stored separately
+    private static final long FREE = 0;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private boolean hasFree;
+    private long freeValue;
+
+    public LongHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected The number of entries the map can hold without growing.
+     */
+    public LongHashMap(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    // The smallest power of two table that holds this many entries below the fill limit
+    static int capacityFor(int expected) {
+        long capacity = 16;
+        while (maxFill(capacity) < expected) {
+            capacity *= 2;
+        }
+        return checkCapacity(capacity);
+    }
+
+    static int checkCapacity(long capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Table too large: " + capacity + " slots");
+        }
+        return (int) capacity;
+    }
+
+    static long maxFill(long capacity) {
+        return capacity / 4 * 3;
+    }
+
+    // Multiplies by the golden ratio and folds the high half in, so every key bit reaches the low bits
+    static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     */
+    public void put(long key, long value) {
+        if (key == FREE) {
+            if (!hasFree) {
+                hasFree = true;
+                size++;
+            }
+            freeValue = value;
+            return;
+        }
+        int i = slot(key, mask);
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > maxFill(keys.length)) {
+            rehash(keys.length * 2L);
+        }
+    }
+
+    /**
+     * @return The value for the key, or {@code missing} if it has none.
+     */
+    public long get(long key, long missing) {
+        if (key == FREE) {
+            return hasFree ? freeValue : missing;
+        }
+        int i = slot(key, mask);
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return missing;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE) {
+            return hasFree;
+        }
+        int i = slot(key, mask);
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Every key in the map, in no particular order.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        if (hasFree) {
+            result[n++] = FREE;
+        }
+        for (long key : keys) {
+            if (key != FREE) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes every entry, keeping the table allocated.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFree = false;
+        size = 0;
+    }
+
+    private void rehash(long capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(checkCapacity(capacity));
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key != FREE) {
+                int i = slot(key, mask);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
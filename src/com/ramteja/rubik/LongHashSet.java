@@ -0,0 +1,111 @@
+package com.ramteja.rubik;
+
+import java.util.Arrays;
+
+/**
+ * A set of longs in one open-addressing table, for visited sets of cube states keyed by
+ * {@link RubikCube#stateHash()}. Nothing is boxed and nothing is allocated per element, so tens
+ * of millions of states fit in a few hundred megabytes.
+ *
+ * Collisions are resolved by linear probing. The table doubles when it is three quarters full;
+ * size it up front with the expected element count to avoid rehashing. Elements cannot be removed
+ * one by one, only all at once with {@link #clear()}. Not thread-safe.
+ */
+public final class LongHashSet {
+    // The free slot marker; the key 0 itself is tracked separately
+    private static final long FREE = 0;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean hasFree;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expected The number of elements the set can hold without growing.
+     */
+    public LongHashSet(int expected) {
+        allocate(LongHashMap.capacityFor(expected));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return True if the key was not in the set yet.
+     */
+    public boolean add(long key) {
+        if (key == FREE) {
+            if (hasFree) {
+                return false;
+            }
+            hasFree = true;
+            size++;
+            return true;
+        }
+        int i = LongHashMap.slot(key, mask);
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if (++size > LongHashMap.maxFill(keys.length)) {
+            rehash(keys.length * 2L);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == FREE) {
+            return hasFree;
+        }
+        int i = LongHashMap.slot(key, mask);
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every element, keeping the table allocated.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFree = false;
+        size = 0;
+    }
+
+    private void rehash(long capacity) {
+        long[] old = keys;
+        allocate(LongHashMap.checkCapacity(capacity));
+        for (long key : old) {
+            if (key != FREE) {
+                int i = LongHashMap.slot(key, mask);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ramteja.rubik;
+
+import java.util.ArrayDeque;
+
+import javax.swing.Timer;
+
+/**
+ * Plays move sequences on a cube, one after another, from a single Swing timer. Every move is
+ * recorded on the cube's {@link Timeline}, so played moves can be undone and scrubbed through.
+ *
+ * Everything happens on the event dispatch thread: sequences are queued with {@link #play}, the
+ * timer applies the moves that are due at each frame, and the listener hears about progress at
+ * most once per frame, so repaints are coalesced however fast the moves go. When more than one
+ * move is due per frame (high speeds, or long sequences, which are sped up to play in at most
+ * {@link #MAX_SEQUENCE_MILLIS}), the intermediate states are skipped rather than drawn.
+ */
+final class MoveAnimator {
+    /**
+     * Receives playback events on the event dispatch thread.
+     */
+    interface Listener {
+        void sequenceStarted(Algorithm sequence);
+
+        /**
+         * @param applied How many moves of the sequence have been applied so far (at least 1).
+         */
+        void sequenceProgressed(Algorithm sequence, int applied);
+
+        /**
+         * @param completed False if the playback was cancelled before the last move.
+         */
+        void sequenceFinished(Algorithm sequence, boolean completed);
+    }
+
+    // About 60 frames per second
+    private static final int FRAME_MILLIS = 16;
+
+    // Longer sequences play faster, so that any sequence is done within this time
+    static final int MAX_SEQUENCE_MILLIS = 10_000;
+
+    private final Timeline timeline;
+    private final Listener listener;
+    private final Timer timer;
+    private final ArrayDeque<Algorithm> queue = new ArrayDeque<>();
+
+    private int moveDelay;
+
+    // The sequence being played, how many of its moves are applied, and its timing
+    private Algorithm current;
+    private int applied;
+    private long startMillis;
+    private double millisPerMove;
+
+    /**
+     * @param moveDelay Milliseconds between two moves.
+     */
+    MoveAnimator(Timeline timeline, int moveDelay, Listener listener) {
+        this.timeline = timeline;
+        this.moveDelay = moveDelay;
+        this.listener = listener;
+        this.timer = new Timer(FRAME_MILLIS, e -> tick());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Queues a sequence to be played after the ones already queued.
+     */
+    void play(Algorithm sequence) {
+        queue.add(sequence);
+        if (!timer.isRunning()) {
+            timer.start();
+            tick(); // the first move shows at once
+        }
+    }
+
+    /**
+     * Stops the sequence being played where it is and drops the queued ones.
+     */
+    void cancel() {
+        queue.clear();
+        timer.stop();
+        if (current != null) {
+            Algorithm sequence = current;
+            current = null;
+            listener.sequenceFinished(sequence, false);
+        }
+    }
+
+    boolean isPlaying() {
+        return current != null || !queue.isEmpty();
+    }
+
+    /**
+     * Changes the delay between moves, also for the sequence being played.
+     */
+    void setMoveDelay(int moveDelay) {
+        this.moveDelay = moveDelay;
+        if (current != null) {
+            millisPerMove = millisPerMove(current);
+            startMillis = System.currentTimeMillis() - (long) ((applied - 1) * millisPerMove);
+        }
+    }
+
+    /**
+     * @return The time between two moves of the sequence being played, which may be shorter than
+     *         the move delay for long sequences.
+     */
+    double moveMillis() {
+        return current != null ? millisPerMove : moveDelay;
+    }
+
+    private double millisPerMove(Algorithm sequence) {
+        return Math.min(moveDelay, (double) MAX_SEQUENCE_MILLIS / Math.max(1, sequence.length()));
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        if (current == null) {
+            current = queue.poll();
+            if (current == null) {
+                timer.stop();
+                return;
+            }
+            applied = 0;
+            startMillis = now;
+            millisPerMove = millisPerMove(current);
+            listener.sequenceStarted(current);
+        }
+
+        int length = current.length();
+        int due = (int) Math.min(length, (now - startMillis) / millisPerMove + 1);
+        if (due > applied) {
+            for (; applied < due; applied++) {
+                timeline.record(current.moveAt(applied));
+            }
+            listener.sequenceProgressed(current, applied);
+        }
+        // The last move stays on screen for one delay before the next sequence starts
+        if (applied == length && now - startMillis >= length * millisPerMove) {
+            Algorithm finished = current;
+            current = null;
+            listener.sequenceFinished(finished, true);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ramteja.rubik;
+
+/**
+ * Precomputed facelet permutations for the 18 face turns.
+ *
+ * Facelets are numbered 0..53 in the same order as {@link RubikCube#toString()}:
+ * U, R, F, D, L, B, nine per face, row by row. A move code is {@code 3 * face + power - 1},
+ * with faces ordered U R F D L B and powers 1 (clockwise), 2 (half turn), 3 (counter-clockwise),
+ * which is the same numbering the two-phase solver uses for its move tables.
+ */
+final class Moves {
+    static final int N_MOVES = 18;
+
+    // Number of stickers moved by any single face turn (8 on the face, 12 around it)
+    static final int MOVED = 20;
+
+    static final String FACES = "URFDLB";
+
+    private static final String[] NAMES = {
+        "U", "U2", "U'", "R", "R2", "R'", "F", "F2", "F'",
+        "D", "D2", "D'", "L", "L2", "L'", "B", "B2", "B'"
+    };
+
+    // Clockwise quarter turn of each face as 4-cycles {a, b, c, d}:
+    // the sticker at b moves to a, c to b, d to c and a to d.
+    private static final int[][][] QUARTER_CYCLES = {
+        {{0, 6, 8, 2}, {1, 3, 7, 5}, {9, 45, 36, 18}, {10, 46, 37, 19}, {11, 47, 38, 20}},       // U
+        {{2, 20, 29, 51}, {5, 23, 32, 48}, {8, 26, 35, 45}, {9, 15, 17, 11}, {10, 12, 16, 14}},  // R
+        {{6, 44, 29, 9}, {7, 41, 28, 12}, {8, 38, 27, 15}, {18, 24, 26, 20}, {19, 21, 25, 23}},  // F
+        {{15, 24, 42, 51}, {16, 25, 43, 52}, {17, 26, 44, 53}, {27, 33, 35, 29}, {28, 30, 34, 32}}, // D
+        {{0, 53, 27, 18}, {3, 50, 30, 21}, {6, 47, 33, 24}, {36, 42, 44, 38}, {37, 39, 43, 41}}, // L
+        {{0, 11, 35, 42}, {1, 14, 34, 39}, {2, 17, 33, 36}, {45, 51, 53, 47}, {46, 48, 52, 50}}  // B
+    };
+
+    /** PERM[m][i] is the facelet whose sticker lands on facelet i after move m. */
+    static final byte[][] PERM = new byte[N_MOVES][54];
+
+    /** The 20 facelets changed by move m, and the facelets their new stickers come from. */
+    static final byte[][] TARGET = new byte[N_MOVES][MOVED];
+    static final byte[][] SOURCE = new byte[N_MOVES][MOVED];
+
+    static {
+        for (int face = 0; face < 6; face++) {
+            byte[] quarter = new byte[54];
+            for (int i = 0; i < 54; i++) {
+                quarter[i] = (byte) i;
+            }
+            for (int[] cycle : QUARTER_CYCLES[face]) {
+                for (int k = 0; k < 4; k++) {
+                    quarter[cycle[k]] = (byte) cycle[(k + 1) % 4];
+                }
+            }
+            PERM[3 * face] = quarter;
+            for (int power = 1; power < 3; power++) {
+                byte[] prev = PERM[3 * face + power - 1];
+                byte[] next = PERM[3 * face + power];
+                for (int i = 0; i < 54; i++) {
+                    next[i] = prev[quarter[i]];
+                }
+            }
+        }
+        for (int m = 0; m < N_MOVES; m++) {
+            int k = 0;
+            for (int i = 0; i < 54; i++) {
+                if (PERM[m][i] != i) {
+                    TARGET[m][k] = (byte) i;
+                    SOURCE[m][k] = PERM[m][i];
+                    k++;
+                }
+            }
+        }
+    }
+
+    private Moves() {
+    }
+
+    /**
+     * Parses a single move token such as "U", "R'" or "F2".
+     * @return The move code, or -1 if the token does not name a face.
+     */
+    static int parseMove(String move) {
+        int face = move.isEmpty() ? -1 : FACES.indexOf(move.charAt(0));
+        if (face < 0) {
+            return -1;
+        }
+        int power = 1;
+        if (move.length() > 1 && move.charAt(1) == '\'') {
+            power = 3;
+        } else if (move.length() > 1 && move.charAt(1) == '2') {
+            power = 2;
+        }
+        return 3 * face + power - 1;
+    }
+
+    static String name(int move) {
+        return NAMES[move];
+    }
+
+    static int face(int move) {
+        return move / 3;
+    }
+
+    static int power(int move) {
+        return move % 3 + 1;
+    }
+
+    static int inverse(int move) {
+        return 3 * (move / 3) + 2 - move % 3;
+    }
+}
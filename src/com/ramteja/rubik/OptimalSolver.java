@@ -0,0 +1,253 @@
+package com.ramteja.rubik;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds provably shortest solutions (in the face turn metric) with Korf's IDA* search.
+ *
+ * The search deepens one move at a time and prunes with the largest of four admissible bounds:
+ * the corner and two edge {@link PatternDatabase}s and the two-phase solver's phase 1 distance,
+ * which is already in memory. The first solution found is therefore optimal. Each depth bound is
+ * split into one task per two-move prefix and run on a fork-join pool; tasks are ordered so the
+ * lexicographically first solution wins, and once a task finds one every later task stops.
+ *
+ * Random cubes need 17 to 20 moves and can take from minutes to hours; two-phase solutions
+ * ({@link TwoPhaseSolver}) are found in milliseconds and are usually one to three moves longer.
+ */
+public final class OptimalSolver {
+    // No position needs more than 20 face turns
+    private static final int MAX_DEPTH = 20;
+
+    private static final int PREFIX_LENGTH = 2;
+
+    private final PatternDatabase databases;
+    private final CoordTables tables;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a solver over the databases named by {@code -Drubik.pdb}, searching on the common pool.
+     * @throws IllegalStateException if the databases cannot be mapped.
+     */
+    public OptimalSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver that runs its searches on the given pool.
+     * @throws IllegalStateException if the databases cannot be mapped.
+     */
+    public OptimalSolver(ForkJoinPool pool) {
+        this(PatternDatabase.get(), pool);
+    }
+
+    OptimalSolver(PatternDatabase databases, ForkJoinPool pool) {
+        this.databases = databases;
+        this.tables = CoordTables.get();
+        this.pool = pool;
+    }
+
+    /**
+     * Computes a shortest solution for a given cube.
+     *
+     * @param facelets The cube definition string in {@link RubikCube#toString()} format.
+     * @return The moves separated by spaces (empty for a solved cube), or the same "Error 1" to
+     *         "Error 6" codes as {@link TwoPhaseSolver#solution}.
+     * @throws InterruptedException if the calling thread is interrupted; the search is stopped.
+     */
+    public String solution(String facelets) throws InterruptedException {
+        byte[] f = TwoPhaseSolver.parseFacelets(facelets);
+        if (f == null) {
+            return "Error 1";
+        }
+        CubieCube cc = CubieCube.fromFacelets(f);
+        int s = cc.verify();
+        if (s != 0) {
+            return "Error " + Math.abs(s);
+        }
+        return solution(cc).toString();
+    }
+
+    Algorithm solution(CubieCube cc) throws InterruptedException {
+        Node root = new Node();
+        root.set(cc);
+        int bound = distance(root);
+        if (bound == 0) {
+            return new Algorithm(new byte[0]);
+        }
+        List<byte[]> prefixes = new ArrayList<>();
+        for (; bound <= MAX_DEPTH; bound++) {
+            if (bound >= PREFIX_LENGTH && prefixes.isEmpty()) {
+                addPrefixes(prefixes, new byte[PREFIX_LENGTH], 0);
+            }
+            byte[] moves = bound < PREFIX_LENGTH ? searchSmall(root, bound) : searchParallel(root, prefixes, bound);
+            if (moves != null) {
+                return new Algorithm(moves);
+            }
+        }
+        throw new IllegalStateException("No solution within " + MAX_DEPTH + " moves");
+    }
+
+    // Depth bounds below the prefix length are searched directly in the calling thread
+    private byte[] searchSmall(Node root, int bound) {
+        Search search = new Search(root, new byte[0], bound, 0, new AtomicInteger(Integer.MAX_VALUE));
+        return search.run();
+    }
+
+    private byte[] searchParallel(Node root, List<byte[]> prefixes, int bound) throws InterruptedException {
+        // Index of the first prefix with a solution; tasks with a larger index give up
+        AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE);
+        List<ForkJoinTask<byte[]>> tasks = new ArrayList<>(prefixes.size());
+        for (int i = 0; i < prefixes.size(); i++) {
+            tasks.add(pool.submit(new Search(root, prefixes.get(i), bound, i, found)::run));
+        }
+        byte[] best = null;
+        try {
+            for (ForkJoinTask<byte[]> task : tasks) {
+                byte[] moves = task.get();
+                if (moves != null && best == null) {
+                    best = moves;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        } finally {
+            // Stops every task that is still running when interrupted
+            found.set(-1);
+        }
+        return best;
+    }
+
+    // All move pairs without two turns of one face, or of opposite faces in descending order
+    private static void addPrefixes(List<byte[]> prefixes, byte[] prefix, int length) {
+        if (length == prefix.length) {
+            prefixes.add(prefix.clone());
+            return;
+        }
+        for (int m = 0; m < Moves.N_MOVES; m++) {
+            if (length > 0 && redundant(prefix[length - 1], m)) {
+                continue;
+            }
+            prefix[length] = (byte) m;
+            addPrefixes(prefixes, prefix, length + 1);
+        }
+    }
+
+    private static boolean redundant(int previous, int move) {
+        int a = Moves.face(previous);
+        int b = Moves.face(move);
+        return a == b || a - 3 == b;
+    }
+
+    private int distance(Node node) {
+        int d = databases.cornerDistance(node.URFtoDLB, node.twist);
+        d = Math.max(d, tables.phase1Distance(node.flip, node.twist, node.slice));
+        d = Math.max(d, databases.lowEdgeDistance(node.edgePosition, node.edgeFlip));
+        return Math.max(d, databases.highEdgeDistance(node.edgePosition, node.edgeFlip));
+    }
+
+    // Whether a node is provably more than maxMoves from solved; the cheaper bounds are tried first
+    private boolean exceeds(Node node, int maxMoves) {
+        return tables.phase1Distance(node.flip, node.twist, node.slice) > maxMoves
+                || databases.cornerDistance(node.URFtoDLB, node.twist) > maxMoves
+                || databases.lowEdgeDistance(node.edgePosition, node.edgeFlip) > maxMoves
+                || databases.highEdgeDistance(node.edgePosition, node.edgeFlip) > maxMoves;
+    }
+
+    // The coordinates of one position on the search path
+    private static final class Node {
+        int URFtoDLB;
+        int twist;
+        int flip;
+        int slice;
+        final byte[] edgePosition = new byte[12];
+        final byte[] edgeFlip = new byte[12];
+
+        void set(CubieCube cc) {
+            URFtoDLB = cc.getURFtoDLB();
+            twist = cc.getTwist();
+            flip = cc.getFlip();
+            slice = cc.getFRtoBR() / 24;
+            for (int i = 0; i < 12; i++) {
+                edgePosition[cc.ep[i]] = (byte) i;
+                edgeFlip[cc.ep[i]] = cc.eo[i];
+            }
+        }
+
+        void setMoved(Node from, int move, CoordTables tables) {
+            URFtoDLB = PatternDatabase.cornerPermMove(from.URFtoDLB, move);
+            twist = tables.twistMove(from.twist, move);
+            flip = tables.flipMove(from.flip, move);
+            slice = tables.FRtoBR_Move(from.slice * 24, move) / 24;
+            PatternDatabase.moveEdges(move, from.edgePosition, from.edgeFlip, edgePosition, edgeFlip);
+        }
+    }
+
+    // Depth-first search below one prefix, with its own path of nodes
+    private final class Search {
+        private final byte[] prefix;
+        private final int bound;
+        private final int index;
+        private final AtomicInteger found;
+        private final Node[] path = new Node[MAX_DEPTH + 1];
+        private final byte[] moves;
+
+        Search(Node root, byte[] prefix, int bound, int index, AtomicInteger found) {
+            this.prefix = prefix;
+            this.bound = bound;
+            this.index = index;
+            this.found = found;
+            this.moves = new byte[bound];
+            path[0] = root;
+            for (int i = 1; i <= bound; i++) {
+                path[i] = new Node();
+            }
+        }
+
+        byte[] run() {
+            for (int i = 0; i < prefix.length; i++) {
+                moves[i] = prefix[i];
+                path[i + 1].setMoved(path[i], prefix[i], tables);
+                if (exceeds(path[i + 1], bound - i - 1)) {
+                    return null;
+                }
+            }
+            if (!search(prefix.length)) {
+                return null;
+            }
+            found.accumulateAndGet(index, Math::min);
+            return moves;
+        }
+
+        // Extends the path at depth n; true once moves[0..bound) solves the cube
+        private boolean search(int n) {
+            if (n == bound) {
+                return true; // only solved nodes pass the pruning with no moves left
+            }
+            if (found.get() < index) {
+                return false;
+            }
+            int remaining = bound - n - 1;
+            Node node = path[n];
+            Node next = path[n + 1];
+            for (int m = 0; m < Moves.N_MOVES; m++) {
+                if (n > 0 && redundant(moves[n - 1], m)) {
+                    continue;
+                }
+                next.setMoved(node, m, tables);
+                if (exceeds(next, remaining)) {
+                    continue;
+                }
+                moves[n] = (byte) m;
+                if (search(n + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ramteja.rubik;
+
+/**
+ * A lossless 9-byte encoding of a solvable cube, for storing large numbers of states.
+ *
+ * A state is packed from its cubie coordinates: the corner permutation (8!) and twist (3^7) in the
+ * top 27 bits, then half the edge permutation (12!/2, the edge parity follows from the corners) and
+ * the flip (2^11) in the low 39 bits. That makes 66 bits; no state needs more, and 64 is not enough,
+ * as there are about 4.3 * 10^19 states. The value is written big-endian into 9 bytes, so byte-wise
+ * comparison of two codes orders them like the numbers they hold.
+ */
+public final class PackedCube {
+    /** The size of one encoded state. */
+    public static final int BYTES = 9;
+
+    private static final int EDGE_BITS = 39;
+
+    private PackedCube() {
+    }
+
+    /**
+     * Encodes a cube into {@code BYTES} bytes of {@code out} starting at {@code offset}.
+     * @throws IllegalArgumentException if the cube is not in a solvable state.
+     */
+    public static void encode(RubikCube cube, byte[] out, int offset) {
+        byte[] facelets = new byte[54];
+        for (int i = 0; i < 54; i++) {
+            facelets[i] = (byte) cube.getFacelet(i);
+        }
+        CubieCube cc = CubieCube.fromFacelets(facelets);
+        if (cc.verify() != 0) {
+            throw new IllegalArgumentException("Not a solvable state: " + cube);
+        }
+        long corners = (long) cc.getURFtoDLB() * CoordTables.N_TWIST + cc.getTwist();
+        long edges = (long) (cc.getURtoBR() / 2) * CoordTables.N_FLIP + cc.getFlip();
+        write(corners >>> (64 - EDGE_BITS), corners << EDGE_BITS | edges, out, offset);
+    }
+
+    /**
+     * @return A new array with the encoding of the cube.
+     * @throws IllegalArgumentException if the cube is not in a solvable state.
+     */
+    public static byte[] encode(RubikCube cube) {
+        byte[] code = new byte[BYTES];
+        encode(cube, code, 0);
+        return code;
+    }
+
+    /**
+     * Decodes the state encoded at {@code offset}.
+     */
+    public static RubikCube decode(byte[] in, int offset) {
+        return decode(in[offset] & 0xff, readLong(in, offset + 1));
+    }
+
+    // The code split as its top byte and its low 64 bits
+    static RubikCube decode(long high, long low) {
+        long corners = high << (64 - EDGE_BITS) | low >>> EDGE_BITS;
+        long edges = low & ((1L << EDGE_BITS) - 1);
+        CubieCube cc = new CubieCube();
+        cc.setURFtoDLB((int) (corners / CoordTables.N_TWIST));
+        cc.setTwist((int) (corners % CoordTables.N_TWIST));
+        // The lowest digit of the permutation index has radix 2 and flips the parity; the corners decide it
+        int edgePerm = (int) (edges / CoordTables.N_FLIP) * 2;
+        cc.setURtoBR(edgePerm);
+        if (cc.edgeParity() != cc.cornerParity()) {
+            cc.setURtoBR(edgePerm + 1);
+        }
+        cc.setFlip((int) (edges % CoordTables.N_FLIP));
+        byte[] facelets = new byte[54];
+        cc.toFacelets(facelets);
+        return new RubikCube(facelets);
+    }
+
+    static void write(long high, long low, byte[] out, int offset) {
+        out[offset] = (byte) high;
+        for (int i = 0; i < 8; i++) {
+            out[offset + 1 + i] = (byte) (low >>> (56 - 8 * i));
+        }
+    }
+
+    static long readLong(byte[] in, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (in[offset + i] & 0xff);
+        }
+        return value;
+    }
+}
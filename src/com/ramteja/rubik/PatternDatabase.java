@@ -0,0 +1,366 @@
+package com.ramteja.rubik;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Korf's pattern databases for the {@link OptimalSolver}: the exact number of moves needed to
+ * solve the 8 corners, the first 6 edges and the last 6 edges, each on its own.
+ *
+ * Distances are packed two per byte and live in a memory-mapped file, so the 87 MB of tables
+ * are off the Java heap and shared between processes through the page cache. The file is
+ * generated once by {@code main} (a breadth-first search over each pattern, a few minutes on
+ * one core) and selected at runtime with the system property {@code rubik.pdb}.
+ *
+ * Corner patterns are indexed by (URFtoDLB, twist) in {@link CubieCube} coordinates. An edge
+ * pattern is indexed by the ordered positions of its six edges (12!/6! values) and their six
+ * flips; edges are tracked piece by piece with {@link #moveEdges}.
+ */
+final class PatternDatabase {
+    static final String PDB_PROPERTY = "rubik.pdb";
+
+    // File header: magic "RPDB", format version, table count, reserved
+    private static final int MAGIC = 0x52504442;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int TABLE_COUNT = 3;
+
+    static final int N_CORNER_PERM = CoordTables.N_URFtoDLB;              // 8! corner permutations
+    static final int N_CORNERS = N_CORNER_PERM * CoordTables.N_TWIST;     // 88,179,840
+    static final int N_EDGE_POSITIONS = 12 * 11 * 10 * 9 * 8 * 7;         // 12!/6! placements of six edges
+    static final int N_EDGES = N_EDGE_POSITIONS * 64;                     // 42,577,920 with flips
+    static final int EDGE_GROUP = 6;
+
+    // Marks an unvisited entry while generating
+    private static final int UNKNOWN = 0x0f;
+
+    // Corner permutation move table, indexed by URFtoDLB * 18 + move
+    private static final char[] CORNER_PERM_MOVE = new char[N_CORNER_PERM * Moves.N_MOVES];
+
+    // Where a move carries the edge at each position, and whether it flips it; indexed by move * 12 + position
+    private static final byte[] EDGE_POSITION = new byte[Moves.N_MOVES * 12];
+    private static final byte[] EDGE_FLIP = new byte[Moves.N_MOVES * 12];
+
+    static {
+        CubieCube a = new CubieCube();
+        for (int i = 0; i < N_CORNER_PERM; i++) {
+            a.setURFtoDLB(i);
+            for (int j = 0; j < 6; j++) {
+                for (int k = 0; k < 3; k++) {
+                    a.cornerMultiply(CubieCube.MOVE_CUBE[j]);
+                    CORNER_PERM_MOVE[i * Moves.N_MOVES + 3 * j + k] = (char) a.getURFtoDLB();
+                }
+                a.cornerMultiply(CubieCube.MOVE_CUBE[j]);
+            }
+        }
+        for (int m = 0; m < Moves.N_MOVES; m++) {
+            CubieCube turned = new CubieCube();
+            turned.move(m);
+            // The edge that was at position ep[i] is now at position i, flipped by eo[i]
+            for (int i = 0; i < 12; i++) {
+                EDGE_POSITION[m * 12 + turned.ep[i]] = (byte) i;
+                EDGE_FLIP[m * 12 + turned.ep[i]] = turned.eo[i];
+            }
+        }
+    }
+
+    private final ByteBuffer corners;
+    private final ByteBuffer edgesLow;  // edges UR..DF
+    private final ByteBuffer edgesHigh; // edges DL..BR
+
+    private static final class Holder {
+        static final PatternDatabase INSTANCE = load();
+    }
+
+    /**
+     * Returns the databases named by {@code -Drubik.pdb}, mapping them on first use.
+     * @throws IllegalStateException if the property is unset or the file cannot be mapped.
+     */
+    static PatternDatabase get() {
+        return Holder.INSTANCE;
+    }
+
+    private PatternDatabase(ByteBuffer file) throws IOException {
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        if (file.capacity() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("not a pattern database file");
+        }
+        if (file.getInt(4) != FORMAT_VERSION || file.getInt(8) != TABLE_COUNT) {
+            throw new IOException("unsupported pattern database version " + file.getInt(4));
+        }
+        if (file.capacity() != HEADER_SIZE + dataSize()) {
+            throw new IOException("pattern database file has the wrong size");
+        }
+        file.position(HEADER_SIZE);
+        corners = nextBytes(file, N_CORNERS / 2);
+        edgesLow = nextBytes(file, N_EDGES / 2);
+        edgesHigh = nextBytes(file, N_EDGES / 2);
+    }
+
+    // ************************************** Persistence ******************************************
+
+    private static PatternDatabase load() {
+        String path = System.getProperty(PDB_PROPERTY);
+        if (path == null) {
+            throw new IllegalStateException("No pattern databases; generate them with "
+                    + "'java com.ramteja.rubik.PatternDatabase <file>' and run with -D" + PDB_PROPERTY + "=<file>");
+        }
+        try {
+            return map(Paths.get(path));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map pattern databases " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #generate(Path)} read-only into memory.
+     * @throws IOException if the file cannot be read or was written by a different format version.
+     */
+    static PatternDatabase map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new PatternDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Generates the databases straight into a mapped file, so they never occupy the heap. The file
+     * is written next to its destination and moved into place once complete.
+     */
+    static void generate(Path file) throws IOException {
+        Path temp = CoordTables.createTempFile(file);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + dataSize());
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            data.position(HEADER_SIZE);
+            ByteBuffer cornerTable = nextBytes(data, N_CORNERS / 2);
+            ByteBuffer lowTable = nextBytes(data, N_EDGES / 2);
+            ByteBuffer highTable = nextBytes(data, N_EDGES / 2);
+
+            CoordTables tables = CoordTables.get();
+            breadthFirst("corners", cornerTable, N_CORNERS, 0, (index, next) -> {
+                int perm = index / CoordTables.N_TWIST;
+                int twist = index % CoordTables.N_TWIST;
+                for (int m = 0; m < Moves.N_MOVES; m++) {
+                    next[m] = cornerPermMove(perm, m) * CoordTables.N_TWIST + tables.twistMove(twist, m);
+                }
+            });
+            EdgeNeighbors low = new EdgeNeighbors(0);
+            breadthFirst("edges UR..DF", lowTable, N_EDGES, low.solvedIndex(), low);
+            EdgeNeighbors high = new EdgeNeighbors(EDGE_GROUP);
+            breadthFirst("edges DL..BR", highTable, N_EDGES, high.solvedIndex(), high);
+
+            // Written last, so an interrupted run never leaves a file with a valid header
+            data.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, TABLE_COUNT).putInt(12, 0);
+            data.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long dataSize() {
+        return N_CORNERS / 2 + 2L * (N_EDGES / 2);
+    }
+
+    private static ByteBuffer nextBytes(ByteBuffer file, int count) {
+        ByteBuffer slice = file.slice();
+        slice.limit(count);
+        file.position(file.position() + count);
+        return slice;
+    }
+
+    // ************************************** Lookups **********************************************
+
+    /**
+     * Moves needed to solve the corners alone.
+     */
+    int cornerDistance(int URFtoDLB, int twist) {
+        return get(corners, URFtoDLB * CoordTables.N_TWIST + twist);
+    }
+
+    /**
+     * Moves needed to solve edges UR..DF alone, for the edge positions and flips indexed by edge.
+     */
+    int lowEdgeDistance(byte[] position, byte[] flip) {
+        return get(edgesLow, edgeIndex(position, flip, 0));
+    }
+
+    /**
+     * Moves needed to solve edges DL..BR alone.
+     */
+    int highEdgeDistance(byte[] position, byte[] flip) {
+        return get(edgesHigh, edgeIndex(position, flip, EDGE_GROUP));
+    }
+
+    static int cornerPermMove(int URFtoDLB, int move) {
+        return CORNER_PERM_MOVE[URFtoDLB * Moves.N_MOVES + move];
+    }
+
+    /**
+     * Applies a move to edges tracked piece by piece: {@code position[e]} is where edge e sits
+     * and {@code flip[e]} its orientation there.
+     */
+    static void moveEdges(int move, byte[] position, byte[] flip, byte[] newPosition, byte[] newFlip) {
+        int base = move * 12;
+        for (int e = 0; e < 12; e++) {
+            int p = base + position[e];
+            newPosition[e] = EDGE_POSITION[p];
+            newFlip[e] = (byte) (flip[e] ^ EDGE_FLIP[p]);
+        }
+    }
+
+    /**
+     * Index of the six edges starting at {@code first}: their positions as a mixed-radix number
+     * with digits counting only the positions not taken by earlier edges, then their flips.
+     */
+    static int edgeIndex(byte[] position, byte[] flip, int first) {
+        int used = 0;
+        int rank = 0;
+        int flips = 0;
+        for (int i = 0; i < EDGE_GROUP; i++) {
+            int p = position[first + i];
+            rank = rank * (12 - i) + p - Integer.bitCount(used & ((1 << p) - 1));
+            used |= 1 << p;
+            flips |= flip[first + i] << i;
+        }
+        return rank * 64 + flips;
+    }
+
+    // Inverse of edgeIndex for the six edges starting at first
+    private static void setEdges(int index, byte[] position, byte[] flip, int first) {
+        int flips = index & 63;
+        int rank = index >>> 6;
+        int[] digit = new int[EDGE_GROUP];
+        for (int i = EDGE_GROUP - 1; i >= 0; i--) {
+            digit[i] = rank % (12 - i);
+            rank /= 12 - i;
+        }
+        int used = 0;
+        for (int i = 0; i < EDGE_GROUP; i++) {
+            int p = -1;
+            for (int free = digit[i]; free >= 0; free--) {
+                do {
+                    p++;
+                } while ((used & (1 << p)) != 0);
+            }
+            used |= 1 << p;
+            position[first + i] = (byte) p;
+            flip[first + i] = (byte) (flips >>> i & 1);
+        }
+    }
+
+    // ************************************** Table generation *************************************
+
+    private interface Neighbors {
+        void expand(int index, int[] next);
+    }
+
+    // Expands an edge pattern; the edges outside the group stay at position 0 and never affect the index
+    private static final class EdgeNeighbors implements Neighbors {
+        private final int first;
+        private final byte[] position = new byte[12];
+        private final byte[] flip = new byte[12];
+        private final byte[] newPosition = new byte[12];
+        private final byte[] newFlip = new byte[12];
+
+        EdgeNeighbors(int first) {
+            this.first = first;
+        }
+
+        int solvedIndex() {
+            byte[] solved = new byte[12];
+            for (int e = 0; e < 12; e++) {
+                solved[e] = (byte) e;
+            }
+            return edgeIndex(solved, new byte[12], first);
+        }
+
+        @Override
+        public void expand(int index, int[] next) {
+            setEdges(index, position, flip, first);
+            for (int m = 0; m < Moves.N_MOVES; m++) {
+                moveEdges(m, position, flip, newPosition, newFlip);
+                next[m] = edgeIndex(newPosition, newFlip, first);
+            }
+        }
+    }
+
+    private static int get(ByteBuffer table, int index) {
+        int b = table.get(index >>> 1);
+        return (index & 1) == 0 ? b & 0x0f : (b >>> 4) & 0x0f;
+    }
+
+    private static void set(ByteBuffer table, int index, int value) {
+        int b = table.get(index >>> 1);
+        b = (index & 1) == 0 ? (b & 0xf0) | value : (b & 0x0f) | (value << 4);
+        table.put(index >>> 1, (byte) b);
+    }
+
+    /**
+     * Fills {@code table} with the distance of every index from {@code solved}.
+     * Each level is expanded forward from its states while they are fewer than the unvisited
+     * states, and backward (an unvisited state next to the level joins the next level) after that.
+     */
+    private static void breadthFirst(String name, ByteBuffer table, int size, int solved, Neighbors neighbors) {
+        for (int i = 0; i < table.limit(); i++) {
+            table.put(i, (byte) -1);
+        }
+        set(table, solved, 0);
+        int[] next = new int[Moves.N_MOVES];
+        long done = 1;
+        long level = 1;
+        for (int depth = 0; done < size; depth++) {
+            boolean backward = size - done < level;
+            level = 0;
+            for (int i = 0; i < size; i++) {
+                int value = get(table, i);
+                if (backward) {
+                    if (value != UNKNOWN) {
+                        continue;
+                    }
+                    neighbors.expand(i, next);
+                    for (int m = 0; m < Moves.N_MOVES; m++) {
+                        if (get(table, next[m]) == depth) {
+                            set(table, i, depth + 1);
+                            level++;
+                            break;
+                        }
+                    }
+                } else if (value == depth) {
+                    neighbors.expand(i, next);
+                    for (int m = 0; m < Moves.N_MOVES; m++) {
+                        if (get(table, next[m]) == UNKNOWN) {
+                            set(table, next[m], depth + 1);
+                            level++;
+                        }
+                    }
+                }
+            }
+            done += level;
+            System.err.println(name + ": " + level + " at depth " + (depth + 1));
+        }
+    }
+
+    /**
+     * Generates the pattern database file, e.g. {@code java -cp bin com.ramteja.rubik.PatternDatabase pdb.bin},
+     * to be used with {@code -Drubik.pdb=pdb.bin}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: PatternDatabase <database file>");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        generate(Paths.get(args[0]));
+        System.out.println("Wrote " + args[0] + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,159 @@
+package com.ramteja.rubik;
+
+import java.util.Arrays;
+
+/**
+ * An immutable permutation of the 54 facelets, i.e. the net effect of a move sequence.
+ *
+ * A whole algorithm collapses into one permutation, so applying it to a cube costs 54
+ * byte moves no matter how long the sequence was, and "apply it k times" is computed
+ * by exponentiation by squaring in O(log k) compositions.
+ */
+public final class Permutation {
+    private static final Permutation IDENTITY = new Permutation(identityArray());
+
+    // source[i] is the facelet whose sticker lands on facelet i
+    private final byte[] source;
+
+    private Permutation(byte[] source) {
+        this.source = source;
+    }
+
+    /**
+     * @return The permutation that leaves every facelet in place.
+     */
+    public static Permutation identity() {
+        return IDENTITY;
+    }
+
+    /**
+     * @return The permutation performed by a single move code.
+     */
+    public static Permutation ofMove(int move) {
+        return new Permutation(Moves.PERM[move].clone());
+    }
+
+    /**
+     * Composes a move sequence into a single permutation.
+     * Each move only touches the 20 entries it changes, like {@link RubikCube#applyMove(int)}.
+     * @param algorithm The move sequence to compose.
+     * @return The permutation equal to applying every move of the algorithm in order.
+     */
+    public static Permutation of(Algorithm algorithm) {
+        byte[] source = identityArray();
+        byte[] moved = new byte[Moves.MOVED];
+        for (int i = 0, n = algorithm.length(); i < n; i++) {
+            int move = algorithm.moveAt(i);
+            byte[] target = Moves.TARGET[move];
+            byte[] from = Moves.SOURCE[move];
+            for (int k = 0; k < Moves.MOVED; k++) {
+                moved[k] = source[from[k]];
+            }
+            for (int k = 0; k < Moves.MOVED; k++) {
+                source[target[k]] = moved[k];
+            }
+        }
+        return new Permutation(source);
+    }
+
+    /**
+     * @return The permutation equal to applying this one and then {@code next}.
+     */
+    public Permutation then(Permutation next) {
+        byte[] result = new byte[54];
+        for (int i = 0; i < 54; i++) {
+            result[i] = source[next.source[i]];
+        }
+        return new Permutation(result);
+    }
+
+    /**
+     * @return The permutation that undoes this one.
+     */
+    public Permutation inverse() {
+        byte[] result = new byte[54];
+        for (int i = 0; i < 54; i++) {
+            result[source[i]] = (byte) i;
+        }
+        return new Permutation(result);
+    }
+
+    /**
+     * Raises the permutation to a power by repeated squaring.
+     * @param exponent How many times to apply the permutation; negative values apply the inverse.
+     * @return The permutation equal to applying this one {@code exponent} times.
+     */
+    public Permutation power(long exponent) {
+        Permutation base = exponent < 0 ? inverse() : this;
+        long remaining = Math.abs(exponent % order());
+        Permutation result = IDENTITY;
+        while (remaining > 0) {
+            if ((remaining & 1) != 0) {
+                result = result.then(base);
+            }
+            base = base.then(base);
+            remaining >>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the order (period) of the permutation: the least k > 0 such that
+     * applying it k times returns every facelet to where it started.
+     * This is the least common multiple of its cycle lengths.
+     */
+    public int order() {
+        boolean[] seen = new boolean[54];
+        int order = 1;
+        for (int i = 0; i < 54; i++) {
+            if (seen[i]) {
+                continue;
+            }
+            int length = 0;
+            for (int j = i; !seen[j]; j = source[j]) {
+                seen[j] = true;
+                length++;
+            }
+            order = order / gcd(order, length) * length;
+        }
+        return order;
+    }
+
+    public boolean isIdentity() {
+        return Arrays.equals(source, IDENTITY.source);
+    }
+
+    /**
+     * @return The facelet whose sticker is moved onto facelet {@code index}.
+     */
+    public int sourceOf(int index) {
+        return source[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Permutation && Arrays.equals(source, ((Permutation) o).source);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(source);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static byte[] identityArray() {
+        byte[] source = new byte[54];
+        for (int i = 0; i < 54; i++) {
+            source[i] = (byte) i;
+        }
+        return source;
+    }
+}
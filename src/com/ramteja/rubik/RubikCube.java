@@ -1,34 +1,47 @@
 package com.ramteja.rubik;
-import org.kociemba.twophase.Search;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Represents a Rubik's Cube with methods to manipulate and display its state.
  */
 public class RubikCube {
-    // The ANSI color codes for the cube faces 
-    // U: White, D: Yellow, L: Orange, R: Red, F: Green, B: Blue
-    private static final String[] ANSI_COLOR = {
-        "\u001b[0;37m", // White
-        "\u001b[0;33m", // Yellow
-        "\u001b[38;5;208m", // Orange
-        "\u001b[0;31m", // Red
-        "\u001b[0;32m", // Green
-        "\u001b[0;34m"  // Blue
-    };
-    // ANSI reset code to revert to default terminal color
-    private static final String ANSI_RESET = "\u001b[0m";
-
     private static final boolean DEBUG = false; // Debug mode flag
 
-    // The cube faces represented as 2D arrays
-    // U: Up, D: Down, L: Left, R: Right, F: Front, B: Back
-    char[][] U = new char[3][3];
-    char[][] D = new char[3][3];
-    char[][] L = new char[3][3];
-    char[][] R = new char[3][3];
-    char[][] F = new char[3][3];
-    char[][] B = new char[3][3];
+    // Optional cache consulted by solveCube(), shared by all cubes
+    private static volatile SolutionCache solutionCache;
+
+    // Runs asynchronous solves; daemon threads, so a pending solve never keeps the JVM alive
+    private static final ExecutorService SOLVER_EXECUTOR = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "cube-solver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Face colors in facelet order: U: White, R: Red, F: Green, D: Yellow, L: Orange, B: Blue
+    private static final String FACE_COLORS = "WRGYOB";
+
+    // The 54 facelets in toString() order (U, R, F, D, L, B, row by row),
+    // each holding the index of the face whose color it shows
+    private final byte[] facelets = new byte[54];
+
+    // Zobrist hash of the facelets (see StateHash), updated with every change
+    private long hash;
+
+    // Scratch space for the stickers moved by a face turn or a whole permutation
+    private final byte[] scratch = new byte[54];
+
+    // Solver coordinates followed by applyMove while tracking is on (null when off). A permutation
+    // can make any state, so after one they are recomputed from the facelets when next needed.
+    private CubeCoordinates coordinates;
+    private boolean coordinatesStale;
 
     /**
      * Constructor to initialize the cube with default colors.
@@ -38,164 +51,357 @@ public class RubikCube {
         resetCube();
     }
 
+    // A cube showing the given facelet colors (face indices), which need not be a solvable state
+    RubikCube(byte[] facelets) {
+        System.arraycopy(facelets, 0, this.facelets, 0, 54);
+        hash = StateHash.of(this.facelets);
+    }
+
     /**
      * Applies a sequence of rotations to the cube.
-     * Each character in the string represents a face to rotate.
-     * Uppercase letters perform clockwise rotations, lowercase letters perform counter-clockwise rotations.
-     * Spaces are ignored.
+     * Moves use standard notation (U, U', U2, etc.) separated by whitespace.
+     * The string is compiled on every call; use {@link #applyRotation(Algorithm)}
+     * to apply the same sequence repeatedly.
      * @param rotation A string representing the sequence of rotations to apply.
+     * @throws IllegalArgumentException if the string contains an invalid move.
      */
     public void applyRotation(String rotation) {
         if(DEBUG) {
             System.out.println("Applying the rotation: " + rotation);
         }
-        String[] moves = rotation.trim().split("\\s+");
-        for (String move : moves) {
-            if (!move.isEmpty())
-                rotateFace(move);
+        applyRotation(Algorithm.parse(rotation));
+    }
+
+    /**
+     * Applies a precompiled sequence of rotations to the cube.
+     * @param algorithm The compiled move sequence to apply.
+     */
+    public void applyRotation(Algorithm algorithm) {
+        for (int i = 0, n = algorithm.length(); i < n; i++) {
+            applyMove(algorithm.moveAt(i));
         }
     }
-    
+
     /**
      * Rotates the specified face of the cube.
      * Suports standard notations: U, U', U2, etc.
      * @param face A character representing the face to rotate ('U', "U'", "U2", etc.)
      */
     public void rotateFace(String move) {
-        char face = move.charAt(0);
-        int times = 1; // Default to 1 for clockwise rotation
-        if (move.length() > 1 && move.charAt(1) == '\'') {
-            times = 3;
-        } else if (move.length() > 1 && move.charAt(1) == '2') {
-            times = 2;
+        int code = Moves.parseMove(move);
+        if (code < 0) {
+            System.out.println("Invalid rotation: " + move.charAt(0));
+            return;
         }
-        for(int i = 0; i < times; i++) {
-            switch (face) {
-                case 'U': rotateUpper(); break;
-                case 'F': rotateFront(); break;
-                case 'R': rotateRight(); break;
-                case 'L': rotateLeft(); break;
-                case 'B': rotateBack(); break;
-                case 'D': rotateDown(); break;
-                default: 
-                    System.out.println("Invalid rotation: " + face);
-            }
+        applyMove(code);
+    }
+
+    /**
+     * Applies a single move by its precomputed facelet permutation.
+     * Only the 20 stickers touched by the turn are read and written.
+     * @param move The move code, 3 * face + power - 1 with faces ordered U R F D L B.
+     */
+    public void applyMove(int move) {
+        byte[] target = Moves.TARGET[move];
+        byte[] source = Moves.SOURCE[move];
+        for (int k = 0; k < Moves.MOVED; k++) {
+            scratch[k] = facelets[source[k]];
+        }
+        long h = hash;
+        for (int k = 0; k < Moves.MOVED; k++) {
+            int t = target[k];
+            h ^= StateHash.key(t, facelets[t]) ^ StateHash.key(t, scratch[k]);
+            facelets[t] = scratch[k];
+        }
+        hash = h;
+        if (coordinates != null && !coordinatesStale) {
+            coordinates.move(move);
         }
     }
 
+    /**
+     * Applies a composed facelet permutation, e.g. a whole algorithm collapsed
+     * with {@link Permutation#of(Algorithm)} and optionally raised to a power.
+     * @param permutation The permutation to apply.
+     */
+    public void applyPermutation(Permutation permutation) {
+        for (int i = 0; i < 54; i++) {
+            scratch[i] = facelets[permutation.sourceOf(i)];
+        }
+        System.arraycopy(scratch, 0, facelets, 0, 54);
+        hash = StateHash.of(facelets);
+        coordinatesStale = true;
+    }
+
+    // Copies the facelets to out at offset, 54 bytes
+    void copyFacelets(byte[] out, int offset) {
+        System.arraycopy(facelets, 0, out, offset, 54);
+    }
+
+    // Replaces the whole state with the 54 facelets at offset, like a permutation would
+    void setFacelets(byte[] in, int offset) {
+        System.arraycopy(in, offset, facelets, 0, 54);
+        hash = StateHash.of(facelets);
+        coordinatesStale = true;
+    }
+
     public void resetCube() {
-        fillFace(U, 'W');
-        fillFace(D, 'Y');
-        fillFace(L, 'O');
-        fillFace(R, 'R');
-        fillFace(F, 'G');
-        fillFace(B, 'B');
+        for (int i = 0; i < 54; i++) {
+            facelets[i] = (byte) (i / 9);
+        }
+        hash = StateHash.SOLVED;
+        if (coordinates != null) {
+            coordinates.reset();
+            coordinatesStale = false;
+        }
     }
 
     /**
-     * Displays the current state of the Rubik's Cube in the console.
-     * Each cell is printed with its respective ANSI color code.
-     * The cube is displayed in a 2D format:
-     * - Up face at the top
-     * - Left, Front, Right, and Back faces in the middle
-     * - Down face at the bottom
-    */
-    private void displayCube() {
-        for(char[] row : U) {
-            System.out.print("      ");
-            for(char cell : row) {
-                System.out.print(getColorCode(cell) + cell + " ");
-            }
-            System.out.println();
-        }
-        for(int i = 0; i < 3; i++){
-            for(char cell : L[i]){
-                System.out.print(getColorCode(cell) + cell + " ");
-            }
-            for(char cell : F[i]){
-                System.out.print(getColorCode(cell) + cell + " ");
-            }
-            for(char cell : R[i]){
-                System.out.print(getColorCode(cell) + cell + " ");
-            }
-            for(char cell : B[i]){
-                System.out.print(getColorCode(cell) + cell + " ");
-            }
-            System.out.println();
+     * Keeps the two-phase solver's coordinates up to date as moves are applied, so that
+     * {@link #solveCube()} starts searching at once instead of converting the facelets first.
+     * This costs seven table lookups per move, and turning it on loads the solver tables.
+     */
+    public void setCoordinateTracking(boolean enabled) {
+        if (!enabled) {
+            coordinates = null;
+        } else if (coordinates == null) {
+            coordinates = new CubeCoordinates();
+            coordinatesStale = true;
+            refreshCoordinates();
         }
-        for(char[] row : D) {
-            System.out.print("      ");
-            for(char cell : row) {
-                System.out.print(getColorCode(cell) + cell + " ");
+    }
+
+    // Recomputes stale coordinates from the facelets; false if the state is not solvable
+    private boolean refreshCoordinates() {
+        if (coordinatesStale) {
+            CubieCube cc = CubieCube.fromFacelets(facelets);
+            if (cc.verify() != 0) {
+                return false;
             }
-            System.out.println();
+            coordinates.set(cc);
+            coordinatesStale = false;
         }
-        System.out.println(ANSI_RESET); // Reset to default color
+        return true;
+    }
+
+    /**
+     * Returns the color index (0..5, in U R F D L B face order) shown on a facelet.
+     * @param index The facelet index in toString() order.
+     */
+    public int getFacelet(int index) {
+        return facelets[index];
+    }
+
+    /**
+     * Returns the color character ('W', 'R', 'G', 'Y', 'O' or 'B') shown on a cell of a face.
+     * @param face The face index in U R F D L B order.
+     */
+    public char getColor(int face, int row, int col) {
+        return FACE_COLORS.charAt(facelets[face * 9 + row * 3 + col]);
     }
 
     @Override
     public String toString(){
-
-        StringBuilder sb = new StringBuilder();
-        for (char[] row : U) {
-            for (char cell : row) {
-                sb.append(getFaceName(cell));
-            }
+        char[] names = new char[54];
+        for (int i = 0; i < 54; i++) {
+            names[i] = Moves.FACES.charAt(facelets[i]);
         }
-        for (char[] row : R) {
-            for (char cell : row) {
-                sb.append(getFaceName(cell));
-            }
-        }
-        for (char[] row : F) {
-            for (char cell : row) {
-                sb.append(getFaceName(cell));
-            }
-        }
-        for (char[] row : D) {
-            for (char cell : row) {
-                sb.append(getFaceName(cell));
-            }
-        }
-        for (char[] row : L) {
-            for (char cell : row) {
-                sb.append(getFaceName(cell));
-            }
+        return new String(names);
+    }
+
+    /**
+     * Returns a 64-bit hash of the sticker colors, kept up to date as moves are applied, so it costs
+     * nothing to read. The hash is the same in every JVM. Different states may share a hash, but it
+     * is rare enough to key sets of tens of millions of states, e.g. in a {@link LongHashSet}.
+     */
+    public long stateHash() {
+        return hash;
+    }
+
+    /**
+     * Two cubes are equal if every facelet shows the same color.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
         }
-        for (char[] row : B) {
-            for (char cell : row) {
-                sb.append(getFaceName(cell));
-            }
+        if (!(o instanceof RubikCube)) {
+            return false;
         }
-        return sb.toString();
+        RubikCube other = (RubikCube) o;
+        return hash == other.hash && Arrays.equals(facelets, other.facelets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
     }
 
     public boolean isSolved() {
-        char[][][] faces = {U, D, L, R, F, B};
-        char[] colors = {'W', 'Y', 'O', 'R', 'G', 'B'};
-        for (int i = 0; i < faces.length; i++) {
-            char[][] face = faces[i];
-            char color = colors[i];
-            for (int j = 0; j < 3; j++) {
-                for (int k = 0; k < 3; k++) {
-                    if (face[j][k] != color) {
-                        return false; // Found a cell that does not match the expected color
-                    }
-                }
+        for (int i = 0; i < 54; i++) {
+            if (facelets[i] != i / 9) {
+                return false; // Found a cell that does not match its face's center color
             }
         }
         return true; // All faces are correctly colored
     }
 
+    /**
+     * Solves the cube with the two-phase algorithm. Safe to call from several threads
+     * on different cubes; each thread searches with its own {@link TwoPhaseSolver}.
+     * States within the depth of the shallow state index ({@code -Drubik.shallow}) are looked up there.
+     * Otherwise, if a cache is installed with {@link #setSolutionCache(SolutionCache)}, it is consulted first.
+     * With {@link #setCoordinateTracking(boolean)} on, the search starts from the tracked coordinates.
+     * @return The solution moves, an "Error n" code, or a message if the cube is already solved.
+     */
     public String solveCube() {
         if(!isSolved()) {
-        String solution = Search.solution(toString(), 21, 1000, false);
+        ShallowIndex index = ShallowIndex.get();
+        String indexed = index != null ? index.solution(facelets) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        SolutionCache cache = solutionCache;
+        if (cache != null) {
+            return cache.solve(toString());
+        }
+        if (coordinates != null && refreshCoordinates()) {
+            return TwoPhaseSolver.forCurrentThread().solution(coordinates, 21, 1000, false);
+        }
+        String solution = TwoPhaseSolver.forCurrentThread().solution(toString(), 21, 1000, false);
         return solution;
         } else {
             return "Cube is already solved!";
         }
     }
 
+    /**
+     * Solves the cube like {@link #solveCube()}, but splits the search across all cores.
+     * Worth it for the occasional state that takes the sequential search a long time.
+     * @return The solution moves, an "Error n" code, or a message if the cube is already solved.
+     * @throws InterruptedException if the calling thread is interrupted while searching.
+     */
+    public String solveCubeParallel() throws InterruptedException {
+        if (isSolved()) {
+            return "Cube is already solved!";
+        }
+        return TwoPhaseSolver.solutionParallel(toString(), 21, 21, 1000);
+    }
+
+    /**
+     * Solves the cube in the background. The shallow index and the solution cache are used as in
+     * {@link #solveCube()}; otherwise the search runs on all cores as in {@link #solveCubeParallel()},
+     * starting from the tracked coordinates if there are any. The state is captured when this is
+     * called, so the cube may be changed while the search runs.
+     * Cancelling the returned future with {@code cancel(true)} interrupts the search, also a
+     * cache miss being solved.
+     * @return A future for the solution moves, an "Error n" code, or a message if the cube is already solved.
+     */
+    public CompletableFuture<String> solveCubeAsync() {
+        byte[] state = facelets.clone();
+        String definition = toString();
+        boolean solved = isSolved();
+        SolutionCache cache = solutionCache;
+        CubeCoordinates start = !solved && coordinates != null && refreshCoordinates()
+                ? new CubeCoordinates(coordinates) : null;
+        SolveFuture result = new SolveFuture();
+        result.task = SOLVER_EXECUTOR.submit(() -> {
+            if (result.isDone()) {
+                return; // cancelled before it started
+            }
+            try {
+                result.complete(solved ? "Cube is already solved!" : solveCaptured(state, definition, cache, start));
+            } catch (InterruptedException e) {
+                result.cancel(false);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    // The lookup chain of solveCube() on a captured state, with a parallel search at the end
+    private static String solveCaptured(byte[] state, String definition, SolutionCache cache, CubeCoordinates start)
+            throws InterruptedException {
+        ShallowIndex index = ShallowIndex.get();
+        String indexed = index != null ? index.solution(state) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        if (cache != null) {
+            String solution = cache.solve(definition);
+            // An interrupted search gives up with an error code, which the cache does not keep
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            return solution;
+        }
+        if (start != null) {
+            return TwoPhaseSolver.solutionParallel(start, 21, 21, 1000, ForkJoinPool.commonPool());
+        }
+        return TwoPhaseSolver.solutionParallel(definition, 21, 21, 1000);
+    }
+
+    /**
+     * Loads the solver tables in the background, so that the first solve does not wait for them.
+     * @return A future completed once the tables are ready.
+     */
+    public static CompletableFuture<Void> prewarmSolver() {
+        return CompletableFuture.runAsync(CoordTables::get, SOLVER_EXECUTOR);
+    }
+
+    // A CompletableFuture whose cancel(true) also interrupts the thread running the search
+    private static final class SolveFuture extends CompletableFuture<String> {
+        volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> running = task;
+            if (cancelled && mayInterruptIfRunning && running != null) {
+                running.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+
+    /**
+     * Solves the cube within a time budget, reporting every shorter solution as soon as it is found.
+     * The first solution usually takes a few tens of milliseconds, and up to several hundred for
+     * some states; later ones trade time for length. A budget shorter than that still waits for
+     * the first solution and returns it.
+     * @param targetLength Stop early once a solution of at most this many moves is found.
+     * @param budgetMillis How long to keep searching for shorter solutions.
+     * @param onSolution Receives each improved solution.
+     * @return The shortest solution found, or an "Error n" code if the cube is not in a solvable state.
+     */
+    public String solveCubeAnytime(int targetLength, long budgetMillis, Consumer<String> onSolution) {
+        return TwoPhaseSolver.forCurrentThread().solutionAnytime(toString(), targetLength,
+                System.currentTimeMillis() + budgetMillis, onSolution);
+    }
+
+    /**
+     * Finds a shortest solution with {@link OptimalSolver}. This needs the pattern databases
+     * ({@code -Drubik.pdb}) and can take minutes for a deeply scrambled cube.
+     * @return The solution moves, an "Error n" code, or a message if the cube is already solved.
+     * @throws InterruptedException if the calling thread is interrupted while searching.
+     * @throws IllegalStateException if the pattern databases are not available.
+     */
+    public String solveCubeOptimally() throws InterruptedException {
+        if (isSolved()) {
+            return "Cube is already solved!";
+        }
+        return new OptimalSolver().solution(toString());
+    }
+
+    /**
+     * Installs a cache in front of {@link #solveCube()} for all cubes, or removes it when null.
+     */
+    public static void setSolutionCache(SolutionCache cache) {
+        solutionCache = cache;
+    }
+
     /**
      * Generates a random scramble sequence for the cube.
      * @return A string containing a random sequence of moves to scramble the cube.
@@ -230,180 +436,26 @@ public class RubikCube {
         return scrambleStr;
     }
 
-    // --- Private Helper Methods ---
-    
-    /**
-     * Fills a given face with a specific color character.
-     * @param face The 3x3 face array to fill.
-     * @param color The character representing the color to fill.
-     */
-    private void fillFace(char[][] face, char color) {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                face[i][j] = color;
-            }
-        }
-    }
-
     /**
-     * Returns the ANSI color code for a given cell character.
-     * @param cell The character representing the color of the cell.
-     * @return The ANSI color code string for the cell.
+     * Generates a scramble to a uniformly random state, as used in competitions. Every solvable
+     * state is equally likely, which {@link #scrambleCube()} does not guarantee.
+     * @return The scramble moves, usually 19 to 22.
      */
-    private String getColorCode(char cell) {
-        switch(cell){
-            case 'W': return ANSI_COLOR[0];
-            case 'Y': return ANSI_COLOR[1];
-            case 'O': return ANSI_COLOR[2];
-            case 'R': return ANSI_COLOR[3];
-            case 'G': return ANSI_COLOR[4];
-            case 'B': return ANSI_COLOR[5];
-            default: return ANSI_RESET;
-        }
-    }
-
-    // U: White, D: Yellow, L: Orange, R: Red, F: Green, B: Blue
-    private static char getFaceName(char color){
-        switch (color) {
-            case 'W':
-                return 'U';
-            case 'Y':
-                return 'D';
-            case 'O':
-                return 'L';
-            case 'R':
-                return 'R';
-            case 'G':
-                return 'F';
-            case 'B':
-                return 'B';
-            default:
-                return ' ';
-        }
-    }
-
-    /**
-     * Rotates a given face 90 degrees clockwise.
-     * @param face The 3x3 face array to rotate.
-     */
-    private void rotateClockwise(char[][] face) {
-        for(int i = 0; i < 3; i++){
-            for(int j = 0; j < i; j++){
-                char temp = face[i][j];
-                face[i][j] = face[j][i];
-                face[j][i] = temp;
-            }
-        }
-        for(int i = 0; i < 3; i++){
-            char temp = face[i][0];
-            face[i][0] = face[i][2];
-            face[i][2] = temp;
-        }
-    }
-
-    /**
-     * Rotates the upper (U) face clockwise and updates the adjacent faces accordingly.
-     */
-    private void rotateUpper() {
-        rotateClockwise(U);
-        char[] temp = F[0];
-        F[0] = R[0].clone();
-        R[0] = B[0].clone();
-        B[0] = L[0].clone();
-        L[0] = temp;
-    }
-
-    /**
-     * Rotates the Front (F) face clockwise and updates the adjacent faces accordingly.
-     */
-    private void rotateFront() {
-        rotateClockwise(F);
-        char[] temp = U[2].clone();
-        for (int i = 0; i < 3; i++) {
-            U[2][i] = L[2-i][2];
-        }
-        for (int i = 0; i < 3; i++) {
-            L[i][2] = D[0][i];
-        }
-        for (int i = 0; i < 3; i++) {
-            D[0][i] = R[2-i][0];
-        }
-        for (int i = 0; i < 3; i++) {
-            R[i][0] = temp[i];
-        }
-    }
-
-    private void rotateRight() {
-        rotateClockwise(R);
-        char[] temp = {U[0][2], U[1][2], U[2][2]};
-        for (int i = 0; i < 3; i++) {
-            U[i][2] = F[i][2];
-        }
-        for (int i = 0; i < 3; i++) {
-            F[i][2] = D[i][2];
-        }
-        for (int i = 0; i < 3; i++) {
-            D[i][2] = B[2-i][0];
-        }
-        for (int i = 0; i < 3; i++) {
-            B[2-i][0] = temp[i];
-        }
-    }
-
-    private void rotateLeft() {
-        rotateClockwise(L);
-        char[] temp = {U[0][0], U[1][0], U[2][0]};
-        for (int i = 0; i < 3; i++) {
-            U[i][0] = B[2-i][2];
-        }
-        for (int i = 0; i < 3; i++) {
-            B[i][2] = D[2-i][0];
-        }
-        for (int i = 0; i < 3; i++) {
-            D[i][0] = F[i][0];
-        }
-        for (int i = 0; i < 3; i++) {
-            F[i][0] = temp[i];
-        }
-    }
-
-    private void rotateBack() {
-        rotateClockwise(B);
-        char[] temp = U[0].clone();
-        for (int i = 0; i < 3; i++) {
-            U[0][i] = R[i][2];
-        }
-        for (int i = 0; i < 3; i++) {
-            R[i][2] = D[2][2-i];
-        }
-        for (int i = 0; i < 3; i++) {
-            D[2][i] = L[i][0];
-        }
-        for (int i = 0; i < 3; i++) {
-            L[i][0] = temp[2-i];
-        }
-    }
-
-    private void rotateDown() {
-        rotateClockwise(D);
-        char[] temp = F[2].clone();
-        F[2] = L[2].clone();
-        L[2] = B[2].clone();
-        B[2] = R[2].clone();
-        R[2] = temp;
+    public String scrambleRandomState() {
+        return ScrambleGenerator.scramble(new SplittableRandom()).toString();
     }
-    
 
     public static void main(String[] args) {
         RubikCube cube = new RubikCube();
-        cube.displayCube();
+        TerminalView view = new TerminalView(System.out);
+        view.print(cube);
         cube.applyRotation("B' U' L F B2 R' F L' F' U' R2 L2 U R2 L2 U' F2 U D2");
-        cube.displayCube();
+        view.print(cube);
         System.out.println("Cube state: " + cube.toString().length());
-        String solution = Search.solution(cube.toString(), 21, 1000, false);
+        String solution = TwoPhaseSolver.forCurrentThread().solution(cube.toString(), 21, 1000, false);
         System.out.println("Solution found: " + solution);
         cube.applyRotation(solution);
-        cube.displayCube();
+        view.print(cube);
         System.out.println("Cube state after solution: " + cube.toString().length());
     }
 }
\ No newline at end of file
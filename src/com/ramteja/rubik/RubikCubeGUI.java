@@ -1,17 +1,22 @@
 package com.ramteja.rubik;
 
 import javax.swing.*;
-import javax.swing.border.*;
 import javax.swing.text.*;
 import java.awt.*;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 // Main GUI class for the Rubik's Cube Simulator
 public class RubikCubeGUI extends JFrame {
     private RubikCube cube;
     private JPanel cubePanel;
+    private CubeView3D cubeView;
     private JTextField moveInput;
     private JButton applyButton;
     private JTextPane movesDisplay;
@@ -21,9 +26,53 @@ public class RubikCubeGUI extends JFrame {
     private int delayTime = 300;
     private int currentMoveIndex = -1;
     private List<String> currentMoves = new ArrayList<>();
+    // Document offset of each move in currentMoves, so single moves can be restyled in place
+    private int[] moveOffsets = new int[16];
+    private JLabel movesCountLabel;
+    private JLabel currentMoveLabel;
+
+    // Background solving: the running solve, if any, and the solver table prewarm started at launch
+    private JButton solveButton;
+    private JButton cancelButton;
+    private JProgressBar solveProgress;
+    private CompletableFuture<String> pendingSolve;
+    private CompletableFuture<Void> prewarm;
+
+    // Plays every move sequence on the event thread, one after another
+    private MoveAnimator animator;
+
+    // Every move made on the cube, for undo, redo and the scrub slider
+    private Timeline timeline;
+    private JSlider timelineSlider;
+    private JLabel timelineLabel;
+    private JButton undoButton;
+    private JButton redoButton;
+    private boolean updatingTimeline;
 
     public RubikCubeGUI() {
         cube = new RubikCube();
+        timeline = new Timeline(cube);
+        animator = new MoveAnimator(timeline, delayTime, new MoveAnimator.Listener() {
+            @Override
+            public void sequenceStarted(Algorithm sequence) {
+                showMoves(sequence);
+            }
+
+            @Override
+            public void sequenceProgressed(Algorithm sequence, int applied) {
+                highlightMove(applied - 1);
+                updateTimeline();
+                // A turn takes most of the time to the next move; at high speeds it is a jump
+                cubeView.turn(sequence.moveAt(applied - 1), 0.8 * animator.moveMillis());
+                cubePanel.repaint();
+            }
+
+            @Override
+            public void sequenceFinished(Algorithm sequence, boolean completed) {
+                highlightMove(-1);
+                cubePanel.repaint();
+            }
+        });
         setTitle("Rubik's Cube Simulator");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(800, 600);
@@ -32,13 +81,19 @@ public class RubikCubeGUI extends JFrame {
         // Center panel holds cube display and moves panel
         JPanel centerPanel = new JPanel(new BorderLayout());
         
-        cubePanel = new JPanel() {
+        // The 3D view, with the flat net of all six faces as the alternative
+        JPanel netPanel = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
                 drawCube(g);
             }
         };
+        cubeView = new CubeView3D(cube);
+        cubeView.setBackground(netPanel.getBackground());
+        cubePanel = new JPanel(new CardLayout());
+        cubePanel.add(cubeView, "3D");
+        cubePanel.add(netPanel, "Net");
         cubePanel.setPreferredSize(new Dimension(400, 300));
         cubePanel.setBorder(BorderFactory.createTitledBorder("Cube Display"));
         
@@ -55,12 +110,59 @@ public class RubikCubeGUI extends JFrame {
         controlPanel.add(new JLabel("Moves:"));
         controlPanel.add(moveInput);
         controlPanel.add(applyButton);
-        add(controlPanel, BorderLayout.SOUTH);
+
+        // Timeline controls above it: undo, redo and a slider over every move made so far
+        JPanel timelinePanel = new JPanel(new BorderLayout(5, 0));
+        undoButton = new JButton("Undo");
+        undoButton.addActionListener(e -> {
+            animator.cancel();
+            timeline.undo();
+            updateTimeline();
+            cubePanel.repaint();
+        });
+        redoButton = new JButton("Redo");
+        redoButton.addActionListener(e -> {
+            animator.cancel();
+            timeline.redo();
+            updateTimeline();
+            cubePanel.repaint();
+        });
+        timelineSlider = new JSlider(0, 0, 0);
+        timelineSlider.setToolTipText("Drag to go back to any earlier state of the cube");
+        timelineSlider.addChangeListener(e -> {
+            if (updatingTimeline) {
+                return;
+            }
+            animator.cancel();
+            timeline.seek(timelineSlider.getValue());
+            updateTimeline();
+            cubePanel.repaint();
+        });
+        timelineLabel = new JLabel();
+        JPanel undoPanel = new JPanel();
+        undoPanel.add(undoButton);
+        undoPanel.add(redoButton);
+        timelinePanel.add(undoPanel, BorderLayout.WEST);
+        timelinePanel.add(timelineSlider, BorderLayout.CENTER);
+        timelinePanel.add(timelineLabel, BorderLayout.EAST);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(timelinePanel, BorderLayout.NORTH);
+        southPanel.add(controlPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
+        updateTimeline();
 
         applyButton.addActionListener(e -> {
             String moves = moveInput.getText().trim();
             if (!moves.isEmpty()) {
-                animateMoves(moves);
+                Algorithm algorithm;
+                try {
+                    algorithm = Algorithm.parse(moves);
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Invalid Moves", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                animateMoves(algorithm);
                 moveInput.setText("");
             }
         });
@@ -74,9 +176,12 @@ public class RubikCubeGUI extends JFrame {
         };
         for (String label : buttonLabels) {
             JButton btn = new JButton(label);
+            Algorithm move = Algorithm.parse(label);
             btn.addActionListener(e -> {
                 addMoveToHistory(label);
-                cube.applyRotation(label);
+                timeline.record(move);
+                updateTimeline();
+                cubeView.turn(move.moveAt(0), 0.8 * delayTime);
                 cubePanel.repaint();
             });
             buttonsPanel.add(btn);
@@ -87,27 +192,52 @@ public class RubikCubeGUI extends JFrame {
         JPanel solvePanel = new JPanel();
         JButton resetButton = new JButton("Reset Cube");
         resetButton.addActionListener(e -> {
+            animator.cancel();
             cube.resetCube();
+            timeline.clear();
+            updateTimeline();
             clearMoves();
             cubePanel.repaint();
         });
         resetButton.setToolTipText("Resets the cube to its original state");
-        JButton solveButton = new JButton("Solve Cube");
-        solveButton.addActionListener(e -> {
-            String solution = cube.solveCube();
-            animateMoves(solution);
-        });
+        solveButton = new JButton("Solve Cube");
+        solveButton.addActionListener(e -> startSolve());
         solveButton.setToolTipText("Solves the cube and shows the moves");
 
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            if (pendingSolve != null) {
+                pendingSolve.cancel(true);
+            }
+        });
+        cancelButton.setToolTipText("Stops the running solve");
+        cancelButton.setEnabled(false);
+
+        solveProgress = new JProgressBar();
+        solveProgress.setStringPainted(true);
+        solveProgress.setPreferredSize(new Dimension(90, 20));
+        solveProgress.setVisible(false);
+
         JButton scrambleButton = new JButton("Scramble Cube");
         scrambleButton.addActionListener(e -> {
+            animator.cancel();
             cube.resetCube();
+            timeline.clear();
+            updateTimeline();
             clearMoves();
             cubePanel.repaint();
             String scrambleMoves = cube.scrambleCube();
-            animateMoves(scrambleMoves);
+            animateMoves(Algorithm.parse(scrambleMoves));
         });
         scrambleButton.setToolTipText("Randomly scrambles the cube and shows the moves");
+
+        JCheckBox view3D = new JCheckBox("3D View", true);
+        view3D.addActionListener(e -> ((CardLayout) cubePanel.getLayout()).show(cubePanel, view3D.isSelected() ? "3D" : "Net"));
+        view3D.setToolTipText("Shows the cube in 3D, or all six faces laid out flat");
+
+        JButton stopButton = new JButton("Stop");
+        stopButton.addActionListener(e -> animator.cancel());
+        stopButton.setToolTipText("Stops the animation where it is and drops the queued moves");
         // Slider for animation speed
         JSlider speedSlider = new JSlider(0, 2, 1); // default at index 1 (1x)
         speedSlider.setMajorTickSpacing(1);
@@ -132,10 +262,15 @@ public class RubikCubeGUI extends JFrame {
             double speed = speeds[value];
             System.out.println("Selected speed: " + speed + "x");
             delayTime = (int) (defaultDelayTime / speed); // adjust delay based on speed
+            animator.setMoveDelay(delayTime);
         });
         solvePanel.add(resetButton);
         solvePanel.add(solveButton);
+        solvePanel.add(cancelButton);
+        solvePanel.add(solveProgress);
         solvePanel.add(scrambleButton);
+        solvePanel.add(stopButton);
+        solvePanel.add(view3D);
         solvePanel.add(new Label("Animation Speed:"));
         solvePanel.add(speedSlider);
 
@@ -145,6 +280,59 @@ public class RubikCubeGUI extends JFrame {
         ((JPanel) getContentPane()).setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         setVisible(true);
+
+        // Build the solver tables now rather than on the first click
+        prewarm = RubikCube.prewarmSolver();
+        prewarm.thenRun(() -> SwingUtilities.invokeLater(() -> {
+            if (pendingSolve != null) {
+                solveProgress.setString("Solving...");
+            }
+        }));
+    }
+
+    // Solves in the background; the window stays responsive and the search can be cancelled
+    private void startSolve() {
+        if (pendingSolve != null) {
+            return;
+        }
+        String state = cube.toString();
+        solveButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        solveProgress.setIndeterminate(true);
+        solveProgress.setString(prewarm.isDone() ? "Solving..." : "Loading tables...");
+        solveProgress.setVisible(true);
+        solveProgress.getParent().revalidate();
+
+        pendingSolve = cube.solveCubeAsync();
+        pendingSolve.whenComplete((solution, error) -> SwingUtilities.invokeLater(() -> finishSolve(state, solution, error)));
+    }
+
+    private void finishSolve(String state, String solution, Throwable error) {
+        pendingSolve = null;
+        solveButton.setEnabled(true);
+        cancelButton.setEnabled(false);
+        solveProgress.setIndeterminate(false);
+        solveProgress.setVisible(false);
+
+        if (error instanceof CompletionException) {
+            error = error.getCause();
+        }
+        if (error instanceof CancellationException) {
+            return;
+        }
+        if (error != null) {
+            JOptionPane.showMessageDialog(this, "Solve failed: " + error.getMessage(), "Solve", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (!cube.toString().equals(state)) {
+            JOptionPane.showMessageDialog(this, "The cube was changed while solving. Solve again.");
+            return;
+        }
+        if (cube.isSolved() || solution.startsWith("Error")) {
+            JOptionPane.showMessageDialog(this, solution);
+            return;
+        }
+        animateMoves(Algorithm.parse(solution));
     }
 
     private JPanel createMovesPanel() {
@@ -181,8 +369,8 @@ public class RubikCubeGUI extends JFrame {
 
         // Stats at the bottom
         JPanel statsPanel = new JPanel(new GridLayout(2, 1));
-        JLabel movesCountLabel = new JLabel("Total Moves: 0");
-        JLabel currentMoveLabel = new JLabel("Current: -");
+        movesCountLabel = new JLabel("Total Moves: 0");
+        currentMoveLabel = new JLabel("Current: -");
         statsPanel.add(movesCountLabel);
         statsPanel.add(currentMoveLabel);
         statsPanel.setBorder(BorderFactory.createTitledBorder("Statistics"));
@@ -192,9 +380,19 @@ public class RubikCubeGUI extends JFrame {
         return movesPanel;
     }
 
+    // Append a single move, e.g. from a move button, without touching the rest of the list
     private void addMoveToHistory(String move) {
-        currentMoves.add(move);
-        updateMovesDisplayStatic();
+        try {
+            if (!currentMoves.isEmpty()) {
+                movesDocument.insertString(movesDocument.getLength(), " ", movesDocument.getStyle("normal"));
+            }
+            setMoveOffset(currentMoves.size(), movesDocument.getLength());
+            movesDocument.insertString(movesDocument.getLength(), move, movesDocument.getStyle("normal"));
+            currentMoves.add(move);
+            updateStats();
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
     }
 
     private void clearMoves() {
@@ -202,169 +400,143 @@ public class RubikCubeGUI extends JFrame {
             movesDocument.remove(0, movesDocument.getLength());
             currentMoves.clear();
             currentMoveIndex = -1;
-            updateMovesDisplay();
+            updateStats();
         } catch (BadLocationException e) {
             e.printStackTrace();
         }
     }
 
-    // Animate through a sequence of moves with delays
-    private void animateMoves(String moves) {
-        String[] moveArray = moves.trim().split("\\s+");
-        currentMoves = new ArrayList<>();
-        for (String move : moveArray) {
-            if (!move.isEmpty()) {
-                currentMoves.add(move);
-            }
-        }
-        
-        updateMovesDisplay();
-
-        // Run animation in separate thread so GUI doesn't freeze
-        new Thread(() -> {
-            for (int i = 0; i < currentMoves.size(); i++) {
-                String move = currentMoves.get(i);
-                currentMoveIndex = i;
-                
-                SwingUtilities.invokeLater(this::updateMovesDisplay);
-                
-                cube.applyRotation(move);
-                SwingUtilities.invokeLater(() -> cubePanel.repaint());
-                
-                try {
-                    Thread.sleep(delayTime); // 200ms delay between moves
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-            
-            currentMoveIndex = -1;
-            SwingUtilities.invokeLater(this::updateMovesDisplay);
-        }).start();
+    // Queue a sequence of moves for animation after any that are still playing
+    private void animateMoves(Algorithm algorithm) {
+        animator.play(algorithm);
     }
 
-    private void updateMovesDisplay() {
+    // Replace the move list with a new sequence, inserted as one string with no move highlighted
+    private void showMoves(Algorithm sequence) {
+        currentMoves = new ArrayList<>(sequence.length());
+        StringBuilder text = new StringBuilder(sequence.length() * 3);
+        for (int i = 0; i < sequence.length(); i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            setMoveOffset(i, text.length());
+            String move = sequence.moveName(i);
+            text.append(move);
+            currentMoves.add(move);
+        }
         try {
             movesDocument.remove(0, movesDocument.getLength());
-            
-            // Color each move based on its state
-            for (int i = 0; i < currentMoves.size(); i++) {
-                String move = currentMoves.get(i);
-                String styleType;
-                
-                if (i == currentMoveIndex) {
-                    styleType = "highlight"; // current move is yellow
-                } else if (i < currentMoveIndex) {
-                    styleType = "completed"; // completed moves are green
-                } else {
-                    styleType = "normal"; // future moves are black
-                }
-                
-                movesDocument.insertString(movesDocument.getLength(), move, movesDocument.getStyle(styleType));
-                
-                if (i < currentMoves.size() - 1) {
-                    movesDocument.insertString(movesDocument.getLength(), " ", movesDocument.getStyle("normal"));
-                }
-            }
-            
-            updateStats();
-            
+            movesDocument.insertString(0, text.toString(), movesDocument.getStyle("normal"));
         } catch (BadLocationException e) {
             e.printStackTrace();
         }
+        currentMoveIndex = -1;
+        updateStats();
     }
 
-    // Same as updateMovesDisplay but without the highlighting
-    private void updateMovesDisplayStatic() {
+    // Highlight the move at index (-1 for none), with the moves before it shown as completed.
+    // Only the moves whose state changed since the last call are restyled.
+    private void highlightMove(int index) {
+        int previous = currentMoveIndex;
+        if (index < 0 || index >= currentMoves.size()) {
+            restyle(0, currentMoves.size(), "normal");
+            index = -1;
+        } else {
+            if (previous < 0) {
+                restyle(0, index, "completed");
+            } else if (index >= previous) {
+                restyle(previous, index, "completed");
+            } else {
+                restyle(index + 1, previous + 1, "normal");
+            }
+            restyle(index, index + 1, "highlight");
+            scrollToMove(index);
+        }
+        currentMoveIndex = index;
+        updateStats();
+    }
+
+    // Apply a style to moves from..to-1 and the spaces between them, in one document change
+    private void restyle(int from, int to, String style) {
+        if (from >= to) {
+            return;
+        }
+        int start = moveOffsets[from];
+        int end = moveOffsets[to - 1] + currentMoves.get(to - 1).length();
+        movesDocument.setCharacterAttributes(start, end - start, movesDocument.getStyle(style), true);
+    }
+
+    // Scrolls only if the move is out of view
+    private void scrollToMove(int index) {
         try {
-            movesDocument.remove(0, movesDocument.getLength());
-            
-            for (int i = 0; i < currentMoves.size(); i++) {
-                String move = currentMoves.get(i);
-                movesDocument.insertString(movesDocument.getLength(), move, movesDocument.getStyle("normal"));
-                
-                if (i < currentMoves.size() - 1) {
-                    movesDocument.insertString(movesDocument.getLength(), " ", movesDocument.getStyle("normal"));
-                }
+            Rectangle2D bounds = movesDisplay.modelToView2D(moveOffsets[index]);
+            if (bounds != null) {
+                movesDisplay.scrollRectToVisible(bounds.getBounds());
             }
-            
-            updateStats();
-            
         } catch (BadLocationException e) {
             e.printStackTrace();
         }
     }
 
-    // Update the stats labels - not cleanest way but works
+    private void setMoveOffset(int index, int offset) {
+        if (index >= moveOffsets.length) {
+            moveOffsets = Arrays.copyOf(moveOffsets, Math.max(index + 1, moveOffsets.length * 2));
+        }
+        moveOffsets[index] = offset;
+    }
+
     private void updateStats() {
-        Component[] components = ((JPanel) movesDisplay.getParent().getParent().getParent()).getComponents();
-        for (Component comp : components) {
-            if (comp instanceof JPanel && ((JPanel) comp).getBorder() instanceof TitledBorder) {
-                TitledBorder border = (TitledBorder) ((JPanel) comp).getBorder();
-                if ("Statistics".equals(border.getTitle())) {
-                    JPanel statsPanel = (JPanel) comp;
-                    JLabel movesCount = (JLabel) statsPanel.getComponent(0);
-                    JLabel currentMove = (JLabel) statsPanel.getComponent(1);
-                    
-                    movesCount.setText("Total Moves: " + currentMoves.size());
-                    if (currentMoveIndex >= 0 && currentMoveIndex < currentMoves.size()) {
-                        currentMove.setText("Current: " + currentMoves.get(currentMoveIndex) + 
-                                          " (" + (currentMoveIndex + 1) + "/" + currentMoves.size() + ")");
-                    } else {
-                        currentMove.setText("Current: -");
-                    }
-                    break;
-                }
-            }
+        movesCountLabel.setText("Total Moves: " + currentMoves.size());
+        if (currentMoveIndex >= 0 && currentMoveIndex < currentMoves.size()) {
+            currentMoveLabel.setText("Current: " + currentMoves.get(currentMoveIndex)
+                    + " (" + (currentMoveIndex + 1) + "/" + currentMoves.size() + ")");
+        } else {
+            currentMoveLabel.setText("Current: -");
         }
     }
 
+    // Moves the slider, label and undo/redo buttons to the timeline's length and position
+    private void updateTimeline() {
+        updatingTimeline = true;
+        timelineSlider.setMaximum(timeline.length());
+        timelineSlider.setValue(timeline.position());
+        updatingTimeline = false;
+        timelineLabel.setText(timeline.position() + " / " + timeline.length());
+        undoButton.setEnabled(timeline.position() > 0);
+        redoButton.setEnabled(timeline.position() < timeline.length());
+    }
+
     // Draw the cube in 2D - shows all 6 faces laid out flat
     private void drawCube(Graphics g) {
         int size = 30;
         int offsetX = 100, offsetY = 40;
-        char[][][] faces = { cube.U, cube.R, cube.F, cube.D, cube.L, cube.B };
+        // Indexed by face in U R F D L B order, matching the cube's color indices
         Color[] colors = { Color.WHITE, Color.RED, Color.GREEN, Color.YELLOW, Color.ORANGE, Color.BLUE };
 
         // Top face (U)
         for (int i = 0; i < 3; i++)
             for (int j = 0; j < 3; j++)
-                drawCell(g, offsetX + j * size, offsetY + i * size, faces[0][i][j], colors[faceIndex(faces[0][i][j])]);
+                drawCell(g, offsetX + j * size, offsetY + i * size, 0, i, j, colors);
 
         // Middle row: Left, Front, Right, Back
         int[] faceOrder = { 4, 2, 1, 5 }; // L F R B
         for (int f = 0; f < 4; f++)
             for (int i = 0; i < 3; i++)
                 for (int j = 0; j < 3; j++)
-                    drawCell(g, 10 + (j + 3 * f) * size, offsetY + 3 * size + i * size, faces[faceOrder[f]][i][j],
-                            colors[faceIndex(faces[faceOrder[f]][i][j])]);
+                    drawCell(g, 10 + (j + 3 * f) * size, offsetY + 3 * size + i * size, faceOrder[f], i, j, colors);
 
         // Bottom face (D)
         for (int i = 0; i < 3; i++)
             for (int j = 0; j < 3; j++)
-                drawCell(g, offsetX + j * size, offsetY + 6 * size + i * size, faces[3][i][j],
-                        colors[faceIndex(faces[3][i][j])]);
+                drawCell(g, offsetX + j * size, offsetY + 6 * size + i * size, 3, i, j, colors);
     }
 
-    private void drawCell(Graphics g, int x, int y, char label, Color color) {
-        g.setColor(color);
+    private void drawCell(Graphics g, int x, int y, int face, int row, int col, Color[] colors) {
+        g.setColor(colors[cube.getFacelet(face * 9 + row * 3 + col)]);
         g.fillRect(x, y, 30, 30);
         g.setColor(Color.BLACK);
         g.drawRect(x, y, 30, 30);
-        g.drawString(String.valueOf(label), x + 12, y + 18);
-    }
-
-    private int faceIndex(char c) {
-        switch (c) {
-            case 'W': return 0; // white
-            case 'R': return 1; // red
-            case 'G': return 2; // green  
-            case 'Y': return 3; // yellow
-            case 'O': return 4; // orange
-            case 'B': return 5; // blue
-            default: return 0;
-        }
+        g.drawString(String.valueOf(cube.getColor(face, row, col)), x + 12, y + 18);
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,182 @@
+package com.ramteja.rubik;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates random-state scrambles: every solvable cube is equally likely.
+ *
+ * A state is drawn directly on the cubie level (corner and edge permutations, twist and flip, with
+ * the permutation parities made to match), solved with the {@link TwoPhaseSolver}, and the inverted
+ * solution is the scramble. Unlike {@link RubikCube#scrambleCube()}, which turns random faces, this
+ * reaches every state with the same probability.
+ *
+ * Scrambles are generated in chunks on a thread pool. Every chunk gets its own {@link SplittableRandom},
+ * split off the seeded root in order, so the output for a seed is the same for any number of threads.
+ *
+ * Usage: {@code java -cp bin com.ramteja.rubik.ScrambleGenerator [-threads N] [-seed S] count out}
+ * where "-" stands for standard output. Each line is {@code state scramble}, the state being the
+ * {@link RubikCube#toString()} of a solved cube after the scramble.
+ */
+public final class ScrambleGenerator {
+    private static final int CHUNK_SIZE = 256;
+
+    // Random states need at most 20 moves; a two-phase solution within 22 takes tens of milliseconds
+    private static final int MAX_DEPTH = 22;
+
+    // A state not solved within MAX_DEPTH in time is retried with a bound this much looser, up to
+    // MAX_RETRY_DEPTH; looser bounds are found sooner, as in TwoPhaseSolver.solutionAnytime
+    private static final int RETRY_DEPTH_STEP = 2;
+    private static final int MAX_RETRY_DEPTH = 30;
+
+    private static final long TIME_OUT = 10;
+
+    private final int threads;
+
+    /**
+     * @param threads Number of generator threads.
+     */
+    public ScrambleGenerator(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Draws a uniformly random solvable cube.
+     */
+    static CubieCube randomCube(SplittableRandom random) {
+        CubieCube cc = new CubieCube();
+        cc.setURFtoDLB(random.nextInt(CoordTables.N_URFtoDLB));
+        cc.setURtoBR(random.nextInt(CoordTables.N_URtoBR));
+        if (cc.edgeParity() != cc.cornerParity()) {
+            // Swapping two edges pairs each odd edge permutation with an even one, so this stays uniform
+            byte e = cc.ep[CubieCube.UR];
+            cc.ep[CubieCube.UR] = cc.ep[CubieCube.UF];
+            cc.ep[CubieCube.UF] = e;
+        }
+        cc.setTwist(random.nextInt(CoordTables.N_TWIST));
+        cc.setFlip(random.nextInt(CoordTables.N_FLIP));
+        return cc;
+    }
+
+    /**
+     * @return A uniformly random solvable cube in {@link RubikCube#toString()} format.
+     */
+    public static String randomState(SplittableRandom random) {
+        return toString(randomCube(random));
+    }
+
+    /**
+     * @return A scramble that takes a solved cube to a uniformly random state.
+     */
+    public static Algorithm scramble(SplittableRandom random) {
+        return scramble(randomCube(random));
+    }
+
+    // Retrying the same state instead of drawing a new one keeps the states uniform
+    private static Algorithm scramble(CubieCube cc) {
+        String solution = null;
+        for (int depth = MAX_DEPTH; depth <= MAX_RETRY_DEPTH; depth += RETRY_DEPTH_STEP) {
+            solution = TwoPhaseSolver.forCurrentThread().solution(cc, depth, TIME_OUT, false);
+            if (!solution.startsWith("Error")) {
+                return Algorithm.parse(solution).inverse();
+            }
+        }
+        throw new IllegalStateException("No scramble for " + toString(cc) + ": " + solution);
+    }
+
+    private static String toString(CubieCube cc) {
+        byte[] f = new byte[54];
+        cc.toFacelets(f);
+        char[] chars = new char[54];
+        for (int i = 0; i < 54; i++) {
+            chars[i] = Moves.FACES.charAt(f[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Writes {@code count} scrambles for a seed, one {@code state scramble} line each.
+     * The same seed and count always give the same output.
+     */
+    public void generate(long seed, long count, Writer out) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        SplittableRandom root = new SplittableRandom(seed);
+        // Enough queued chunks to keep every thread busy while the head of the window is written
+        int window = threads * 4;
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>(window);
+        try {
+            for (long start = 0; start < count; start += CHUNK_SIZE) {
+                int size = (int) Math.min(CHUNK_SIZE, count - start);
+                SplittableRandom random = root.split();
+                if (pending.size() == window) {
+                    write(out, pending.poll());
+                }
+                pending.add(pool.submit(() -> chunk(random, size)));
+            }
+            while (!pending.isEmpty()) {
+                write(out, pending.poll());
+            }
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String chunk(SplittableRandom random, int size) {
+        StringBuilder sb = new StringBuilder(size * 120);
+        for (int i = 0; i < size; i++) {
+            CubieCube cc = randomCube(random);
+            sb.append(toString(cc)).append(' ').append(scramble(cc)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void write(Writer out, Future<String> chunk) throws IOException, InterruptedException {
+        try {
+            out.write(chunk.get());
+        } catch (ExecutionException e) {
+            throw new IOException("Generator failed", e.getCause());
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-") && args[i].length() > 1; i += 2) {
+            switch (args[i]) {
+                case "-threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "-seed": seed = Long.parseLong(args[i + 1]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        if (args.length - i != 2) {
+            System.err.println("Usage: ScrambleGenerator [-threads N] [-seed S] <count> <output|->");
+            return;
+        }
+        long count = Long.parseLong(args[i]);
+        Writer out = args[i + 1].equals("-")
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))
+                : Files.newBufferedWriter(Paths.get(args[i + 1]), StandardCharsets.US_ASCII);
+
+        long start = System.currentTimeMillis();
+        try (Writer output = out) {
+            new ScrambleGenerator(threads).generate(seed, count, output);
+        }
+        System.err.println("Generated " + count + " scrambles with seed " + seed + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,259 @@
+package com.ramteja.rubik;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Shortest solutions for every state within a few moves of solved, looked up instead of searched.
+ *
+ * The index file holds the {@link StateHash} of every state at distance 1 to N, sorted, and for
+ * each one the first move of a shortest solution: 9 bytes per state. A lookup finds the state's
+ * hash by binary search, applies the stored move and repeats until the cube is solved, so a state
+ * at distance d costs d searches over the mapped file. The chain must end on the solved cube within
+ * N moves, which also rejects the rare unindexed state whose hash collides with an indexed one.
+ *
+ * The file is generated once by {@code main} and selected at runtime with the system property
+ * {@code rubik.shallow}. Without it, or if it cannot be mapped, {@link #get()} returns null and
+ * solving falls back to the two-phase search. Each extra move of depth costs about 13 times the
+ * states, memory and generation time:
+ *
+ * <pre>
+ * depth  states        file    heap to generate
+ *   5       621,648     6 MB     25 MB
+ *   6     8,240,086    74 MB    330 MB
+ *   7   109,043,122   981 MB      5 GB
+ * </pre>
+ */
+final class ShallowIndex {
+    static final String INDEX_PROPERTY = "rubik.shallow";
+
+    // File header: magic "RSIX", format version, depth, reserved, state count
+    private static final int MAGIC = 0x52534958;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    static final int MAX_DEPTH = 7;
+
+    private final int depth;
+    private final int count;
+    private final LongBuffer keys;
+    private final ByteBuffer moves;
+
+    private static final class Holder {
+        static final ShallowIndex INSTANCE = load();
+    }
+
+    /**
+     * Returns the index named by {@code -Drubik.shallow}, mapping it on first use, or null if there is none.
+     */
+    static ShallowIndex get() {
+        return Holder.INSTANCE;
+    }
+
+    private ShallowIndex(ByteBuffer file) throws IOException {
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        if (file.capacity() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("not a shallow state index");
+        }
+        if (file.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("unsupported shallow state index version " + file.getInt(4));
+        }
+        depth = file.getInt(8);
+        long states = file.getLong(16);
+        if (states > Integer.MAX_VALUE || file.capacity() != HEADER_SIZE + 9 * states) {
+            throw new IOException("shallow state index has the wrong size");
+        }
+        count = (int) states;
+        file.position(HEADER_SIZE);
+        keys = file.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        keys.limit(count);
+        file.position(HEADER_SIZE + 8 * count);
+        moves = file.slice();
+    }
+
+    // ************************************** Persistence ******************************************
+
+    private static ShallowIndex load() {
+        String path = System.getProperty(INDEX_PROPERTY);
+        if (path == null) {
+            return null;
+        }
+        try {
+            return map(Paths.get(path));
+        } catch (IOException e) {
+            System.err.println("Ignoring shallow state index " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #generate(Path, int)} read-only into memory.
+     * @throws IOException if the file cannot be read or was written by a different format version.
+     */
+    static ShallowIndex map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ShallowIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Generates the index of all states within {@code depth} moves. Every canonical move sequence
+     * up to that length (no two turns of one face in a row, opposite faces in one order) is walked
+     * depth first, keeping the shortest distance seen for each state hash; the sorted result is
+     * written next to its destination and moved into place once complete.
+     */
+    static void generate(Path file, int depth) throws IOException {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        LongHashMap states = new LongHashMap(expectedStates(depth));
+        RubikCube cube = new RubikCube();
+        states.put(cube.stateHash(), 0);
+        visit(cube, 0, depth, -1, states);
+
+        long[] sorted = states.keys();
+        Arrays.sort(sorted);
+        // The solved cube itself is not stored; a lookup stops on it before searching
+        int count = sorted.length - 1;
+
+        Path temp = CoordTables.createTempFile(file);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 9L * count);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            int moveBase = HEADER_SIZE + 8 * count;
+            int i = 0;
+            for (long key : sorted) {
+                if (key == StateHash.SOLVED) {
+                    continue;
+                }
+                data.putLong(HEADER_SIZE + 8 * i, key);
+                data.put(moveBase + i, (byte) states.get(key, 0));
+                i++;
+            }
+            // Written last, so an interrupted run never leaves a file with a valid header
+            data.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, depth).putInt(12, 0).putLong(16, count);
+            data.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The number of states within each depth, solved included, so the map never grows while generating
+    private static int expectedStates(int depth) {
+        int[] within = {1, 19, 262, 3502, 46741, 621649, 8240087, 109043123};
+        return within[depth];
+    }
+
+    // Records every state below cube up to maxDepth moves deep as depth << 8 | first move of its solution
+    private static void visit(RubikCube cube, int depth, int maxDepth, int last, LongHashMap states) {
+        for (int m = 0; m < Moves.N_MOVES; m++) {
+            if (last >= 0 && redundant(last, m)) {
+                continue;
+            }
+            cube.applyMove(m);
+            long key = cube.stateHash();
+            long known = states.get(key, -1);
+            if (known < 0 || (known >>> 8) > depth + 1) {
+                states.put(key, (long) (depth + 1) << 8 | Moves.inverse(m));
+            }
+            if (depth + 1 < maxDepth) {
+                visit(cube, depth + 1, maxDepth, m, states);
+            }
+            cube.applyMove(Moves.inverse(m));
+        }
+    }
+
+    private static boolean redundant(int previous, int move) {
+        int a = Moves.face(previous);
+        int b = Moves.face(move);
+        return a == b || a - 3 == b;
+    }
+
+    // ************************************** Lookups **********************************************
+
+    /**
+     * @return The largest distance from solved the index covers.
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * @return The number of indexed states, the solved cube not included.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Looks up a shortest solution.
+     * @param facelets The state as face indices in {@link RubikCube#toString()} order.
+     * @return The solution moves, empty for a solved cube, or null if the state is not in the index.
+     */
+    String solution(byte[] facelets) {
+        RubikCube cube = new RubikCube(facelets);
+        byte[] path = new byte[depth];
+        int n = 0;
+        while (!(cube.stateHash() == StateHash.SOLVED && cube.isSolved())) {
+            int i = find(cube.stateHash());
+            if (i < 0 || n == depth) {
+                return null;
+            }
+            path[n] = moves.get(i);
+            cube.applyMove(path[n++]);
+        }
+        return new Algorithm(Arrays.copyOf(path, n)).toString();
+    }
+
+    // Index of a key in the sorted keys, or -1
+    private int find(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long k = keys.get(mid);
+            if (k < key) {
+                low = mid + 1;
+            } else if (k > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Generates an index file, e.g. {@code java -cp bin com.ramteja.rubik.ShallowIndex -depth 6 shallow.bin},
+     * to be used with {@code -Drubik.shallow=shallow.bin}.
+     */
+    public static void main(String[] args) throws IOException {
+        int depth = 6;
+        int i = 0;
+        if (args.length == 3 && args[0].equals("-depth")) {
+            depth = Integer.parseInt(args[1]);
+            i = 2;
+        }
+        if (args.length - i != 1) {
+            System.err.println("Usage: ShallowIndex [-depth N] <index file>");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        generate(Paths.get(args[i]), depth);
+        ShallowIndex index = map(Paths.get(args[i]));
+        System.out.println("Wrote " + index.size() + " states within " + depth + " moves to " + args[i]
+                + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
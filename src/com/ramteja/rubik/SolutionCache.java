@@ -0,0 +1,186 @@
+package com.ramteja.rubik;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded LRU cache of solutions in front of the two-phase solver.
+ *
+ * States are first normalized so every center shows its own face letter (a whole-cube rotation or
+ * a different color scheme relabels colors), then reduced to a canonical representative: the
+ * lexicographically smallest of the 48 symmetric images of the state. Only the representative is
+ * solved and stored; its solution is mapped back through the symmetry on each lookup, so mirrored,
+ * rotated and relabeled variants of one state share a single entry.
+ *
+ * Lookups are safe from many threads. Solving happens outside the lock, so two threads missing on
+ * the same state at the same time may both solve it.
+ */
+public class SolutionCache {
+    private static final byte[] SOLVED = new byte[54];
+
+    static {
+        for (int i = 0; i < 54; i++) {
+            SOLVED[i] = (byte) (i / 9);
+        }
+    }
+
+    private final int maxEntries;
+    private final int maxDepth;
+    private final long timeOut;
+    private final LinkedHashMap<String, byte[]> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxEntries The most canonical states to keep; the least recently used are evicted first.
+     * @param maxDepth Maximal solution length passed to the solver on a miss.
+     * @param timeOut Solver time limit in seconds on a miss.
+     */
+    public SolutionCache(int maxEntries, int maxDepth, long timeOut) {
+        this.maxEntries = maxEntries;
+        this.maxDepth = maxDepth;
+        this.timeOut = timeOut;
+        this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > SolutionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Solves a cube definition string, answering from the cache when this state or any symmetric
+     * or relabeled variant of it has been solved before.
+     * @return The solution moves separated by spaces, or the solver's "Error n" code.
+     *         Errors are not cached.
+     */
+    public String solve(String facelets) {
+        byte[] state = TwoPhaseSolver.parseFacelets(facelets);
+        if (state == null || !relabelByCenters(state)) {
+            return "Error 1";
+        }
+
+        byte[] canonical = new byte[54];
+        int symmetry = canonicalize(state, canonical);
+        String key = toKey(canonical);
+
+        byte[] moves;
+        synchronized (entries) {
+            moves = entries.get(key);
+        }
+        if (moves != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            String solution = Arrays.equals(canonical, SOLVED)
+                    ? ""
+                    : TwoPhaseSolver.forCurrentThread().solution(key, maxDepth, timeOut, false);
+            if (solution.startsWith("Error")) {
+                return solution;
+            }
+            Algorithm algorithm = Algorithm.parse(solution);
+            moves = new byte[algorithm.length()];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = (byte) algorithm.moveAt(i);
+            }
+            synchronized (entries) {
+                entries.put(key, moves);
+            }
+        }
+
+        byte[] mapped = new byte[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            mapped[i] = (byte) CubeSymmetry.unmapMove(symmetry, moves[i]);
+        }
+        return new Algorithm(mapped).toString();
+    }
+
+    /**
+     * @return How many lookups were answered from the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return How many lookups had to run the solver.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of canonical states currently cached.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SolutionCache[size=" + size() + ", hits=" + hits() + ", misses=" + misses() + "]";
+    }
+
+    /**
+     * Renames colors so each center shows its own face, as if the cube had been picked up in
+     * standard orientation. Returns false if two centers share a color.
+     */
+    static boolean relabelByCenters(byte[] state) {
+        byte[] relabel = new byte[6];
+        int seen = 0;
+        for (int face = 0; face < 6; face++) {
+            int center = state[9 * face + 4];
+            seen |= 1 << center;
+            relabel[center] = (byte) face;
+        }
+        if (seen != 0x3f) {
+            return false;
+        }
+        for (int i = 0; i < 54; i++) {
+            state[i] = relabel[state[i]];
+        }
+        return true;
+    }
+
+    /**
+     * Writes the smallest symmetric image of {@code state} into {@code canonical}.
+     * @return The symmetry that carries {@code state} to its canonical image.
+     */
+    static int canonicalize(byte[] state, byte[] canonical) {
+        System.arraycopy(state, 0, canonical, 0, 54);
+        int best = CubeSymmetry.IDENTITY;
+        byte[] candidate = new byte[54];
+        for (int g = 0; g < CubeSymmetry.COUNT; g++) {
+            if (g == CubeSymmetry.IDENTITY) {
+                continue;
+            }
+            CubeSymmetry.apply(g, state, candidate);
+            if (Arrays.compare(candidate, canonical) < 0) {
+                System.arraycopy(candidate, 0, canonical, 0, 54);
+                best = g;
+            }
+        }
+        return best;
+    }
+
+    private static String toKey(byte[] state) {
+        char[] names = new char[54];
+        for (int i = 0; i < 54; i++) {
+            names[i] = Moves.FACES.charAt(state[i]);
+        }
+        return new String(names);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ramteja.rubik;
+
+/**
+ * What one two-phase solve did, counted while {@link SolverMetrics} is enabled.
+ *
+ * Nodes are positions generated by the search in each phase. Every node costs one pruning table
+ * lookup in phase 1 and two in phase 2, and each phase 2 attempt (one per phase 1 solution tried)
+ * starts with two more; a cutoff is a lookup whose distance exceeds the moves left, so the node is
+ * not expanded further. A parallel solve reports the sum over its tasks.
+ */
+public final class SolveStats {
+    long phase1Nodes;
+    long phase2Nodes;
+    long pruningLookups;
+    long pruningCutoffs;
+    long phase2Attempts;
+    int phase1Depth;
+    int length = -1;
+    long startNanos;
+    long nanos;
+
+    SolveStats() {
+        startNanos = System.nanoTime();
+    }
+
+    void add(SolveStats other) {
+        phase1Nodes += other.phase1Nodes;
+        phase2Nodes += other.phase2Nodes;
+        pruningLookups += other.pruningLookups;
+        pruningCutoffs += other.pruningCutoffs;
+        phase2Attempts += other.phase2Attempts;
+    }
+
+    public long getPhase1Nodes() {
+        return phase1Nodes;
+    }
+
+    public long getPhase2Nodes() {
+        return phase2Nodes;
+    }
+
+    public long getPruningLookups() {
+        return pruningLookups;
+    }
+
+    public long getPruningCutoffs() {
+        return pruningCutoffs;
+    }
+
+    public long getPhase2Attempts() {
+        return phase2Attempts;
+    }
+
+    /**
+     * @return The phase 1 depth of the solution, or of the search when it gave up.
+     */
+    public int getPhase1Depth() {
+        return phase1Depth;
+    }
+
+    /**
+     * @return The number of moves in the solution, or -1 if none was found.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return Wall time of the solve in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "length=" + length + " phase1Depth=" + phase1Depth + " micros=" + nanos / 1000
+                + " phase1Nodes=" + phase1Nodes + " phase2Nodes=" + phase2Nodes
+                + " lookups=" + pruningLookups + " cutoffs=" + pruningCutoffs
+                + " phase2Attempts=" + phase2Attempts;
+    }
+}
@@ -0,0 +1,168 @@
+package com.ramteja.rubik;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide statistics of two-phase solves: latency and solution length histograms, and the
+ * total work done.
+ *
+ * Disabled by default, and then the solver only tests one field per node and allocates nothing.
+ * Enable it with {@code -Drubik.stats=true} or {@link #setEnabled(boolean)}; every solve then
+ * fills in a {@link SolveStats}, readable from {@link TwoPhaseSolver#lastStats()}, and adds it
+ * here. {@code BatchSolver -stats} prints the summary after a run.
+ */
+public final class SolverMetrics {
+    // Latency buckets by powers of two microseconds; bucket b holds [2^(b-1), 2^b)
+    private static final int LATENCY_BUCKETS = 32;
+
+    // Solution lengths are at most 30 moves
+    private static final int LENGTH_BUCKETS = 31;
+
+    private static volatile boolean enabled = Boolean.getBoolean("rubik.stats");
+
+    private static final AtomicLongArray LATENCY = new AtomicLongArray(LATENCY_BUCKETS);
+    private static final AtomicLongArray LENGTH = new AtomicLongArray(LENGTH_BUCKETS);
+    private static final LongAdder FAILED = new LongAdder();
+    private static final LongAdder PHASE1_NODES = new LongAdder();
+    private static final LongAdder PHASE2_NODES = new LongAdder();
+    private static final LongAdder PRUNING_LOOKUPS = new LongAdder();
+    private static final LongAdder PRUNING_CUTOFFS = new LongAdder();
+    private static final LongAdder PHASE2_ATTEMPTS = new LongAdder();
+
+    private SolverMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns collection on or off for solves started from now on.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    static void record(SolveStats stats) {
+        long micros = stats.nanos / 1000;
+        LATENCY.incrementAndGet(Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        if (stats.length < 0) {
+            FAILED.increment();
+        } else {
+            LENGTH.incrementAndGet(Math.min(LENGTH_BUCKETS - 1, stats.length));
+        }
+        PHASE1_NODES.add(stats.phase1Nodes);
+        PHASE2_NODES.add(stats.phase2Nodes);
+        PRUNING_LOOKUPS.add(stats.pruningLookups);
+        PRUNING_CUTOFFS.add(stats.pruningCutoffs);
+        PHASE2_ATTEMPTS.add(stats.phase2Attempts);
+    }
+
+    /**
+     * @return Solve counts by latency: entry b counts solves of at least 2^(b-1) and less than 2^b
+     *         microseconds (entry 0: under one microsecond).
+     */
+    public static long[] latencyHistogram() {
+        return toArray(LATENCY);
+    }
+
+    /**
+     * @return Solve counts by solution length in moves; failed solves are not included.
+     */
+    public static long[] lengthHistogram() {
+        return toArray(LENGTH);
+    }
+
+    /**
+     * @return The number of solves that found no solution (error 7 or 8).
+     */
+    public static long failedSolves() {
+        return FAILED.sum();
+    }
+
+    public static long solves() {
+        long n = 0;
+        for (long count : latencyHistogram()) {
+            n += count;
+        }
+        return n;
+    }
+
+    private static long[] toArray(AtomicLongArray histogram) {
+        long[] counts = new long[histogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Clears all statistics.
+     */
+    public static void reset() {
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            LATENCY.set(i, 0);
+        }
+        for (int i = 0; i < LENGTH_BUCKETS; i++) {
+            LENGTH.set(i, 0);
+        }
+        FAILED.reset();
+        PHASE1_NODES.reset();
+        PHASE2_NODES.reset();
+        PRUNING_LOOKUPS.reset();
+        PRUNING_CUTOFFS.reset();
+        PHASE2_ATTEMPTS.reset();
+    }
+
+    /**
+     * Prints the totals and both histograms.
+     */
+    public static void dump(PrintStream out) {
+        long solves = solves();
+        out.println("Solves: " + solves + " (" + failedSolves() + " without solution)");
+        if (solves == 0) {
+            return;
+        }
+        long lookups = PRUNING_LOOKUPS.sum();
+        out.printf("Per solve: %d phase 1 nodes, %d phase 2 nodes, %d phase 2 attempts%n",
+                PHASE1_NODES.sum() / solves, PHASE2_NODES.sum() / solves, PHASE2_ATTEMPTS.sum() / solves);
+        out.printf("Pruning: %d lookups per solve, %.1f%% cutoffs%n",
+                lookups / solves, lookups == 0 ? 0.0 : 100.0 * PRUNING_CUTOFFS.sum() / lookups);
+
+        out.println("Latency:");
+        long[] latency = latencyHistogram();
+        for (int b = 0; b < latency.length; b++) {
+            if (latency[b] > 0) {
+                long from = b == 0 ? 0 : 1L << (b - 1);
+                out.printf("  %10s %8d %s%n", formatMicros(from) + "+", latency[b], bar(latency[b], solves));
+            }
+        }
+        out.println("Length:");
+        long[] length = lengthHistogram();
+        for (int l = 0; l < length.length; l++) {
+            if (length[l] > 0) {
+                out.printf("  %10d %8d %s%n", l, length[l], bar(length[l], solves));
+            }
+        }
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros >= 1_000_000) {
+            return micros / 1_000_000 + " s";
+        }
+        if (micros >= 1000) {
+            return micros / 1000 + " ms";
+        }
+        return micros + " us";
+    }
+
+    private static String bar(long count, long total) {
+        StringBuilder sb = new StringBuilder();
+        for (long i = count * 40 / total; i > 0; i--) {
+            sb.append('#');
+        }
+        return sb.toString();
+    }
+}
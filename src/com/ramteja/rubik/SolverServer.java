@@ -0,0 +1,280 @@
+package com.ramteja.rubik;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A long-running solver that other processes reach over a local TCP socket, so they share one
+ * JVM with its solver tables already loaded instead of starting their own.
+ *
+ * The protocol is line based: a client sends a 54-character facelet string in
+ * {@link RubikCube#toString()} format and reads back one line with the solution moves (empty for
+ * a solved cube) or the solver's "Error n" code, or "Error 9" if the solver failed. {@code STATS}
+ * returns a line of throughput and latency figures, and {@code QUIT} closes the connection. A
+ * connection may send any number of requests, and may send several before reading the replies.
+ *
+ * Every connection is served by its own pooled thread, which queues its requests for a fixed set
+ * of solver threads. Each solver thread takes one request at a time and keeps its warm
+ * {@link TwoPhaseSolver}. The queue holds a bounded number of requests per solver thread; when it
+ * is full, connection threads wait and stop reading, so clients are slowed down by TCP instead of
+ * the server buffering without limit.
+ *
+ * Usage: {@code java -cp bin com.ramteja.rubik.SolverServer [-port P] [-threads N] [-depth D] [-timeout S] [-cache N]}.
+ * The server listens on the loopback interface only.
+ */
+public final class SolverServer implements Closeable {
+    public static final int DEFAULT_PORT = 7654;
+
+    // Queued requests per solver thread before connections have to wait
+    private static final int QUEUE_PER_THREAD = 64;
+
+    // Reply for a request whose solve threw, after the solver's own codes 1 to 8
+    private static final String SOLVER_FAILED = "Error 9";
+
+    // Latency buckets by powers of two microseconds, as in SolverMetrics
+    private static final int LATENCY_BUCKETS = 32;
+
+    private final ServerSocket serverSocket;
+    private final BatchSolver solver;
+    private final BlockingQueue<Request> queue;
+    private final Thread[] workers;
+    private final ExecutorService connections = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "solver-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder connectionCount = new LongAdder();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLongArray latency = new AtomicLongArray(LATENCY_BUCKETS);
+
+    // One queued state and the reply it gets
+    private static final class Request {
+        final String state;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Request(String state) {
+            this.state = state;
+        }
+    }
+
+    /**
+     * Binds the server to a loopback port and starts its solver threads.
+     * @param port The port, or 0 for any free port.
+     * @param threads Number of solver threads.
+     * @param solver Solves each state; its own thread count is not used.
+     */
+    public SolverServer(int port, int threads, BatchSolver solver) throws IOException {
+        this.solver = solver;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_PER_THREAD * threads);
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "solver-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return; // closed while waiting
+                }
+                throw e;
+            }
+            connectionCount.increment();
+            connections.execute(() -> handle(socket));
+        }
+    }
+
+    /**
+     * Stops accepting connections and stops the solver threads; open connections are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void handle(Socket socket) {
+        openConnections.incrementAndGet();
+        try (Socket s = socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+                Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))) {
+            s.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String request = line.trim();
+                if (request.isEmpty()) {
+                    continue;
+                }
+                if (request.equals("QUIT")) {
+                    break;
+                }
+                out.write(request.equals("STATS") ? stats() : solve(request));
+                out.write('\n');
+                // Replies to pipelined requests go out together
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // the client went away; nothing to answer
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            openConnections.decrementAndGet();
+        }
+    }
+
+    private String solve(String state) throws InterruptedException {
+        long start = System.nanoTime();
+        Request request = new Request(state);
+        queue.put(request);
+        String result;
+        try {
+            result = request.result.get();
+        } catch (ExecutionException e) {
+            result = SOLVER_FAILED;
+        }
+        long micros = (System.nanoTime() - start) / 1000;
+        latency.incrementAndGet(Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        requests.increment();
+        if (result.startsWith("Error")) {
+            errors.increment();
+        }
+        return result;
+    }
+
+    // Solver thread: takes one queued request at a time, so idle threads never wait behind a busy one
+    private void work() {
+        Request request = null;
+        try {
+            while (true) {
+                request = queue.take();
+                try {
+                    request.result.complete(solver.solve(request.state));
+                } catch (RuntimeException e) {
+                    request.result.completeExceptionally(e);
+                }
+                request = null;
+            }
+        } catch (InterruptedException e) {
+            if (request != null) {
+                request.result.complete("Error 8");
+            }
+        }
+    }
+
+    /**
+     * @return Request counts, throughput since start and latency percentiles
+     *         (upper bounds of power-of-two buckets, queueing included) as one line of key=value pairs.
+     */
+    public String stats() {
+        long n = requests.sum();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return "requests=" + n
+                + " errors=" + errors.sum()
+                + " connections=" + connectionCount.sum()
+                + " open=" + openConnections.get()
+                + " queued=" + queue.size()
+                + String.format(" throughput=%.1f/s", n / seconds)
+                + " p50=" + percentileMicros(0.5) + "us"
+                + " p99=" + percentileMicros(0.99) + "us"
+                + " max=" + percentileMicros(1.0) + "us";
+    }
+
+    private long percentileMicros(double fraction) {
+        long[] counts = new long[LATENCY_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            counts[i] = latency.get(i);
+            total += counts[i];
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return 1L << i;
+            }
+        }
+        return 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxDepth = 21;
+        long timeOut = 1000;
+        int cacheSize = 0;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                System.err.println("Usage: SolverServer [-port P] [-threads N] [-depth D] [-timeout S] [-cache N]");
+                return;
+            }
+            switch (args[i]) {
+                case "-port": port = Integer.parseInt(args[i + 1]); break;
+                case "-threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "-depth": maxDepth = Integer.parseInt(args[i + 1]); break;
+                case "-timeout": timeOut = Long.parseLong(args[i + 1]); break;
+                case "-cache": cacheSize = Integer.parseInt(args[i + 1]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        // Load the tables before the first client waits for them
+        CoordTables.get();
+        BatchSolver solver = new BatchSolver(threads, maxDepth, timeOut);
+        if (cacheSize > 0) {
+            solver.setCache(new SolutionCache(cacheSize, maxDepth, timeOut));
+        }
+        try (SolverServer server = new SolverServer(port, threads, solver)) {
+            System.err.println("Solving on port " + server.getPort() + " with " + threads + " threads");
+            server.serve();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ramteja.rubik;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of facelet states.
+ *
+ * Every (facelet, color) pair gets a fixed random 64-bit key, and a state hashes to the XOR of the
+ * keys of its 54 stickers. A move changes 20 stickers, so the hash follows it by XORing out the old
+ * key and in the new one for each of them, instead of rehashing the whole state. The keys come from
+ * a fixed seed, so hashes are the same in every JVM and may be stored in files.
+ */
+final class StateHash {
+    private static final long SEED = 0x5275_6269_6b43_7562L;
+
+    // KEYS[6 * facelet + color]
+    private static final long[] KEYS = new long[54 * 6];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < KEYS.length; i++) {
+            KEYS[i] = random.nextLong();
+        }
+    }
+
+    /** The hash of the solved cube. */
+    static final long SOLVED;
+
+    static {
+        long h = 0;
+        for (int i = 0; i < 54; i++) {
+            h ^= key(i, i / 9);
+        }
+        SOLVED = h;
+    }
+
+    private StateHash() {
+    }
+
+    static long key(int facelet, int color) {
+        return KEYS[6 * facelet + color];
+    }
+
+    /**
+     * Hashes a whole facelet array of face indices.
+     */
+    static long of(byte[] facelets) {
+        long h = 0;
+        for (int i = 0; i < 54; i++) {
+            h ^= key(i, facelets[i]);
+        }
+        return h;
+    }
+}
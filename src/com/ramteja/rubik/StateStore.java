@@ -0,0 +1,648 @@
+package com.ramteja.rubik;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of cube states on disk, as sorted runs of {@link PackedCube} codes of 9 bytes each.
+ *
+ * A store is a directory of run files. Each run is sorted, written once and never changed, and
+ * memory-mapped, so a membership test is a binary search per run that touches a few pages and
+ * takes no heap. {@link #add} buffers states, and {@link #flush} sorts the buffer and writes it
+ * as a new run, so a batch only costs the states it adds, however large the store already is.
+ * Bulk imports flush every few million states, so memory stays bounded whatever the input size.
+ * {@link #merge(Path)} adds another store as one run in the same way.
+ *
+ * A background thread keeps the number of runs small: whenever four adjacent runs are of the same
+ * size tier (a factor of four in size per tier, starting at one batch), it merges them into one
+ * run, dropping duplicates, and deletes them. Each state is thus rewritten about once per fourfold
+ * growth of the store. Until then, a state that was added again after its first flush is in two
+ * runs and counted twice by {@link #size()}.
+ *
+ * Run files are named after the batches they hold, so a merge that was interrupted after writing
+ * its result leaves runs covered by it, which the next {@link #open} deletes. Not thread-safe,
+ * apart from the compaction, which coordinates with the other methods itself.
+ *
+ * Usage: {@code java -cp bin com.ramteja.rubik.StateStore command store [file|state]} with the
+ * commands {@code import} (facelet strings, one per line), {@code export}, {@code merge} (another
+ * store), {@code contains} (one facelet string) and {@code count}; "-" stands for standard input or output.
+ */
+public final class StateStore implements Closeable {
+    // Run file header: magic "RSST", format version, record size, reserved, record count
+    private static final int MAGIC = 0x52535354;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    // Run files are run-<first batch>-<last batch>.rst
+    private static final String RUN_PREFIX = "run-";
+    private static final String RUN_SUFFIX = ".rst";
+
+    // Records per mapping, as one mapping cannot exceed 2 GB
+    private static final int SEGMENT_RECORDS = 1 << 26;
+
+    // States buffered before an automatic flush; 4M states take 32 MB
+    private static final int BATCH_SIZE = 1 << 22;
+
+    // Runs merged at once, and the size ratio between two tiers
+    private static final int MERGE_FACTOR = 4;
+
+    private final Path dir;
+
+    // Oldest first; replaced as a whole, under this store's lock, when a run is added or runs are merged
+    private volatile Run[] runs;
+    private long nextBatch;
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "state-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closed;
+    private volatile IOException compactionFailure;
+
+    // Added but not yet flushed states, bucketed by the top byte of their code (0 to 2). The low 64
+    // bits are stored with the sign bit flipped, so that a signed sort puts them in unsigned order.
+    private final long[][] pending = new long[4][16];
+    private final int[] pendingSize = new int[4];
+    private int pendingTotal;
+
+    private final byte[] code = new byte[PackedCube.BYTES];
+
+    private StateStore(Path dir, Run[] runs) {
+        this.dir = dir;
+        this.runs = runs;
+        this.nextBatch = runs.length == 0 ? 0 : runs[runs.length - 1].last + 1;
+        compactor.execute(this::compact);
+    }
+
+    /**
+     * Opens a store, creating an empty one if the directory does not exist. Left-over files of an
+     * interrupted flush or merge are deleted.
+     * @throws IOException if the directory cannot be read or holds a damaged run.
+     */
+    public static StateStore open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        return new StateStore(dir, loadRuns(dir, true));
+    }
+
+    /**
+     * @return The number of states in the runs; states added since the last flush are not counted,
+     *         and a state that is in several runs not yet merged is counted once for each.
+     */
+    public long size() {
+        long size = 0;
+        for (Run run : runs) {
+            size += run.count;
+        }
+        return size;
+    }
+
+    /**
+     * Whether the store holds a state; states added since the last flush are not seen.
+     * @throws IllegalArgumentException if the cube is not in a solvable state.
+     */
+    public boolean contains(RubikCube cube) {
+        PackedCube.encode(cube, code, 0);
+        long high = code[0];
+        long low = PackedCube.readLong(code, 1);
+        Run[] snapshot = runs;
+        // Newest first: recently added states are the likeliest to be looked up again
+        for (int r = snapshot.length - 1; r >= 0; r--) {
+            if (snapshot[r].contains(high, low)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a state, flushing once enough states are buffered.
+     * @throws IllegalArgumentException if the cube is not in a solvable state.
+     */
+    public void add(RubikCube cube) throws IOException {
+        PackedCube.encode(cube, code, 0);
+        int bucket = code[0];
+        if (pendingSize[bucket] == pending[bucket].length) {
+            pending[bucket] = Arrays.copyOf(pending[bucket], pending[bucket].length * 2);
+        }
+        pending[bucket][pendingSize[bucket]++] = PackedCube.readLong(code, 1) ^ Long.MIN_VALUE;
+        if (++pendingTotal >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered states as a new run.
+     * @return The number of distinct states written.
+     * @throws IOException also if a background merge failed since the last call.
+     */
+    public long flush() throws IOException {
+        checkCompaction();
+        if (pendingTotal == 0) {
+            return 0;
+        }
+        for (int b = 0; b < pending.length; b++) {
+            Arrays.sort(pending[b], 0, pendingSize[b]);
+        }
+        long added = append(new PendingSource());
+        Arrays.fill(pendingSize, 0);
+        pendingTotal = 0;
+        return added;
+    }
+
+    /**
+     * Adds every state of another store as one new run; the other store is only read.
+     * @return The number of distinct states in the other store.
+     */
+    public long merge(Path other) throws IOException {
+        flush();
+        if (!Files.isDirectory(other)) {
+            throw new IOException(other + " is not a state store");
+        }
+        Run[] otherRuns = loadRuns(other, false);
+        Source[] sources = new Source[otherRuns.length];
+        for (int r = 0; r < otherRuns.length; r++) {
+            sources[r] = new RunSource(otherRuns[r]);
+        }
+        return append(new MergedSource(sources));
+    }
+
+    /**
+     * Adds the states of a text file with one facelet string in {@link RubikCube#toString()} format per line.
+     * @return The number of states read.
+     * @throws IOException if a line is not a solvable state.
+     */
+    public long importStates(BufferedReader in) throws IOException {
+        long read = 0;
+        String line;
+        for (long number = 1; (line = in.readLine()) != null; number++) {
+            String state = line.trim();
+            if (state.isEmpty()) {
+                continue;
+            }
+            byte[] facelets = TwoPhaseSolver.parseFacelets(state);
+            try {
+                if (facelets == null) {
+                    throw new IllegalArgumentException("Not a cube definition string: " + state);
+                }
+                add(new RubikCube(facelets));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + number + ": " + e.getMessage(), e);
+            }
+            read++;
+        }
+        flush();
+        return read;
+    }
+
+    /**
+     * Writes every state once as a facelet string per line, in the order of their codes.
+     * @return The number of states written.
+     */
+    public long exportStates(Writer out) throws IOException {
+        Run[] snapshot = runs;
+        Source[] sources = new Source[snapshot.length];
+        for (int r = 0; r < snapshot.length; r++) {
+            sources[r] = new RunSource(snapshot[r]);
+        }
+        Source states = new MergedSource(sources);
+        long written = 0;
+        while (states.next()) {
+            out.write(PackedCube.decode(states.high, states.low).toString());
+            out.write('\n');
+            written++;
+        }
+        out.flush();
+        return written;
+    }
+
+    /**
+     * Flushes the buffered states and stops the background merging; a merge in progress is
+     * abandoned and done again by the next {@link #open}.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closed = true;
+            compactor.shutdownNow();
+            try {
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runs = new Run[0];
+        }
+    }
+
+    // ************************************** Runs *************************************************
+
+    // One sorted run file without duplicates, mapped read-only, holding the batches first to last
+    private static final class Run {
+        final Path file;
+        final long first;
+        final long last;
+        final long count;
+        final ByteBuffer[] segments;
+
+        Run(Path file, long first, long last) throws IOException {
+            this.file = file;
+            this.first = first;
+            this.last = last;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                    // read the whole header
+                }
+                if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                    throw new IOException(file + " is not a state store run");
+                }
+                if (header.getInt(4) != FORMAT_VERSION || header.getInt(8) != PackedCube.BYTES) {
+                    throw new IOException("unsupported state store version " + header.getInt(4));
+                }
+                count = header.getLong(16);
+                if (channel.size() != HEADER_SIZE + count * PackedCube.BYTES) {
+                    throw new IOException(file + " has the wrong size");
+                }
+                segments = new ByteBuffer[(int) ((count + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+                for (int s = 0; s < segments.length; s++) {
+                    long start = (long) s * SEGMENT_RECORDS;
+                    long records = Math.min(SEGMENT_RECORDS, count - start);
+                    segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                            HEADER_SIZE + start * PackedCube.BYTES, records * PackedCube.BYTES);
+                }
+            }
+        }
+
+        int high(long index) {
+            return segments[(int) (index / SEGMENT_RECORDS)].get((int) (index % SEGMENT_RECORDS) * PackedCube.BYTES) & 0xff;
+        }
+
+        long low(long index) {
+            return segments[(int) (index / SEGMENT_RECORDS)].getLong((int) (index % SEGMENT_RECORDS) * PackedCube.BYTES + 1);
+        }
+
+        boolean contains(long high, long low) {
+            long lowIndex = 0;
+            long highIndex = count - 1;
+            while (lowIndex <= highIndex) {
+                long mid = (lowIndex + highIndex) >>> 1;
+                int c = compare(high(mid), low(mid), high, low);
+                if (c < 0) {
+                    lowIndex = mid + 1;
+                } else if (c > 0) {
+                    highIndex = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // 0 up to MERGE_FACTOR batches, then one more for every factor of MERGE_FACTOR
+        int tier() {
+            int tier = 0;
+            for (long n = count / BATCH_SIZE; n >= MERGE_FACTOR; n /= MERGE_FACTOR) {
+                tier++;
+            }
+            return tier;
+        }
+    }
+
+    private static int compare(long high1, long low1, long high2, long low2) {
+        return high1 != high2 ? Long.compare(high1, high2) : Long.compareUnsigned(low1, low2);
+    }
+
+    /**
+     * Maps the runs of a store directory, oldest first. With cleanUp, unfinished files and runs
+     * covered by a later merge are deleted; otherwise they are skipped.
+     */
+    private static Run[] loadRuns(Path dir, boolean cleanUp) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    if (cleanUp) {
+                        Files.deleteIfExists(file);
+                    }
+                } else if (name.startsWith(RUN_PREFIX) && name.endsWith(RUN_SUFFIX)) {
+                    String[] batches = name.substring(RUN_PREFIX.length(), name.length() - RUN_SUFFIX.length()).split("-");
+                    try {
+                        ranges.add(new long[] {Long.parseLong(batches[0]), Long.parseLong(batches[1])});
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        throw new IOException("Unexpected file in state store: " + file);
+                    }
+                }
+            }
+        }
+        // Oldest first, and of runs starting at the same batch the widest, which covers the others
+        ranges.sort(Comparator.<long[]>comparingLong(r -> r[0]).thenComparingLong(r -> -r[1]));
+        List<Run> result = new ArrayList<>();
+        long covered = -1;
+        for (long[] range : ranges) {
+            Path file = dir.resolve(runName(range[0], range[1]));
+            if (range[1] <= covered) {
+                // Merged into a later run by a merge that could not delete it
+                if (cleanUp) {
+                    Files.deleteIfExists(file);
+                }
+                continue;
+            }
+            if (range[0] <= covered) {
+                throw new IOException("Overlapping runs in state store: " + file);
+            }
+            result.add(new Run(file, range[0], range[1]));
+            covered = range[1];
+        }
+        return result.toArray(new Run[0]);
+    }
+
+    private static String runName(long first, long last) {
+        return RUN_PREFIX + first + "-" + last + RUN_SUFFIX;
+    }
+
+    // Writes a source as the run of the next batch and schedules a merge
+    private long append(Source source) throws IOException {
+        long batch = nextBatch;
+        Run run = writeRun(source, batch, batch);
+        if (run == null) {
+            return 0;
+        }
+        nextBatch = batch + 1;
+        synchronized (this) {
+            Run[] current = runs;
+            Run[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = run;
+            runs = updated;
+        }
+        compactor.execute(this::compact);
+        return run.count;
+    }
+
+    /**
+     * Writes a sorted source to a new run file in the store, each code once. The file is written
+     * under a temporary name, header last, and renamed once complete.
+     * @return The new run, or null if the source was empty.
+     */
+    private Run writeRun(Source source, long first, long last) throws IOException {
+        Path temp = CoordTables.createTempFile(dir.resolve(runName(first, last)));
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(PackedCube.BYTES * 8192);
+            channel.position(HEADER_SIZE);
+            long lastHigh = -1;
+            long lastLow = 0;
+            while (source.next()) {
+                if (source.high == lastHigh && source.low == lastLow) {
+                    continue; // a repeat within one batch
+                }
+                lastHigh = source.high;
+                lastLow = source.low;
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer);
+                }
+                buffer.put((byte) source.high).putLong(source.low);
+                written++;
+            }
+            writeFully(channel, buffer);
+            // Written last, so an interrupted run never leaves a file with a valid header
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(PackedCube.BYTES).putInt(0).putLong(written);
+            channel.position(0);
+            writeFully(channel, header);
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        if (written == 0) {
+            Files.delete(temp);
+            return null;
+        }
+        Path file = dir.resolve(runName(first, last));
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        return new Run(file, first, last);
+    }
+
+    // Writes what was put into the buffer and clears it
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ************************************** Compaction *******************************************
+
+    // Compactor thread: merges windows of adjacent runs of one tier until there are none
+    private void compact() {
+        try {
+            Run[] window;
+            while (!closed && (window = nextWindow(runs)) != null) {
+                Source[] sources = new Source[window.length];
+                for (int r = 0; r < window.length; r++) {
+                    sources[r] = new RunSource(window[r]);
+                }
+                Run merged = writeRun(new MergedSource(sources), window[0].first, window[window.length - 1].last);
+                synchronized (this) {
+                    List<Run> updated = new ArrayList<>(Arrays.asList(runs));
+                    int start = updated.indexOf(window[0]);
+                    updated.subList(start, start + window.length).clear();
+                    updated.add(start, merged);
+                    runs = updated.toArray(new Run[0]);
+                }
+                for (Run run : window) {
+                    try {
+                        Files.deleteIfExists(run.file);
+                    } catch (IOException e) {
+                        // Still mapped on Windows; the merged run covers it, so open() deletes it later
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Closing interrupts the merge, whose channel then throws; the partial file is gone
+            if (!closed) {
+                compactionFailure = e;
+            }
+        }
+    }
+
+    // The newest MERGE_FACTOR adjacent runs of one tier, or null
+    private static Run[] nextWindow(Run[] runs) {
+        for (int start = runs.length - MERGE_FACTOR; start >= 0; start--) {
+            int tier = runs[start].tier();
+            int end = start + 1;
+            while (end < start + MERGE_FACTOR && runs[end].tier() == tier) {
+                end++;
+            }
+            if (end == start + MERGE_FACTOR) {
+                return Arrays.copyOfRange(runs, start, end);
+            }
+        }
+        return null;
+    }
+
+    private void checkCompaction() throws IOException {
+        IOException failure = compactionFailure;
+        if (failure != null) {
+            compactionFailure = null;
+            throw new IOException("Merging runs failed", failure);
+        }
+    }
+
+    // ************************************** Sources **********************************************
+
+    // A sorted sequence of codes; high and low hold the current one after next() returned true
+    private abstract static class Source {
+        long high;
+        long low;
+
+        abstract boolean next();
+    }
+
+    private static final class RunSource extends Source {
+        private final Run run;
+        private long index = -1;
+
+        RunSource(Run run) {
+            this.run = run;
+        }
+
+        @Override
+        boolean next() {
+            if (++index >= run.count) {
+                return false;
+            }
+            high = run.high(index);
+            low = run.low(index);
+            return true;
+        }
+    }
+
+    private final class PendingSource extends Source {
+        private int bucket;
+        private int index = -1;
+
+        @Override
+        boolean next() {
+            while (++index >= pendingSize[bucket]) {
+                if (++bucket == pending.length) {
+                    return false;
+                }
+                index = -1;
+            }
+            high = bucket;
+            low = pending[bucket][index] ^ Long.MIN_VALUE;
+            return true;
+        }
+    }
+
+    // The union of sorted sources, each code once
+    private static final class MergedSource extends Source {
+        private final Source[] sources;
+        private final boolean[] live;
+
+        MergedSource(Source[] sources) {
+            this.sources = sources;
+            this.live = new boolean[sources.length];
+            for (int s = 0; s < sources.length; s++) {
+                live[s] = sources[s].next();
+            }
+        }
+
+        @Override
+        boolean next() {
+            Source min = null;
+            for (int s = 0; s < sources.length; s++) {
+                if (live[s] && (min == null || compare(sources[s].high, sources[s].low, min.high, min.low) < 0)) {
+                    min = sources[s];
+                }
+            }
+            if (min == null) {
+                return false;
+            }
+            high = min.high;
+            low = min.low;
+            // Skip the code in every source, and any repeats of it
+            for (int s = 0; s < sources.length; s++) {
+                while (live[s] && sources[s].high == high && sources[s].low == low) {
+                    live[s] = sources[s].next();
+                }
+            }
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || (!args[0].equals("count") && args.length != 3)) {
+            System.err.println("Usage: StateStore import|export|merge|contains|count <store> [<file|-|state>]");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (StateStore store = StateStore.open(Paths.get(args[1]))) {
+            switch (args[0]) {
+                case "import":
+                    try (BufferedReader in = args[2].equals("-")
+                            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII))
+                            : Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.US_ASCII)) {
+                        long read = store.importStates(in);
+                        System.err.println("Imported " + read + " states in " + (System.currentTimeMillis() - start) + " ms");
+                    }
+                    break;
+                case "export":
+                    try (Writer out = args[2].equals("-")
+                            ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))
+                            : Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.US_ASCII)) {
+                        store.exportStates(out);
+                    }
+                    break;
+                case "merge":
+                    long merged = store.merge(Paths.get(args[2]));
+                    System.err.println("Merged " + merged + " states in " + (System.currentTimeMillis() - start) + " ms");
+                    break;
+                case "contains":
+                    byte[] facelets = TwoPhaseSolver.parseFacelets(args[2]);
+                    boolean found;
+                    try {
+                        found = facelets != null && store.contains(new RubikCube(facelets));
+                    } catch (IllegalArgumentException e) {
+                        // Not a solvable state, so never in a store
+                        found = false;
+                    }
+                    System.out.println(found);
+                    break;
+                case "count":
+                    break;
+                default:
+                    System.err.println("Unknown command: " + args[0]);
+                    return;
+            }
+            System.err.println(store.size() + " states in " + store.runs.length + " runs in " + args[1]);
+        }
+    }
+}
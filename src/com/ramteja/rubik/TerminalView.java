@@ -0,0 +1,220 @@
+package com.ramteja.rubik;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Shows a cube as an ANSI-colored net in a text terminal, for watching cubes over SSH on machines
+ * without a display.
+ *
+ * Each frame is built in one reused byte buffer and written with a single call. A color code is
+ * only emitted where the color changes from the previous sticker. {@link #draw} moves the cursor
+ * back up and overwrites the previous frame instead of scrolling, and {@link #play} uses it to
+ * show a move sequence at a fixed number of moves per second.
+ *
+ * Usage: {@code java -cp bin com.ramteja.rubik.TerminalView [-fps F] [scramble moves]}
+ * plays the scramble (random moves if none are given) and then its solution.
+ */
+public final class TerminalView {
+    // Foreground colors of the faces in U R F D L B order: White, Red, Green, Yellow, Orange, Blue
+    private static final byte[][] COLOR_CODES = {
+        ascii("\u001b[0;37m"),
+        ascii("\u001b[0;31m"),
+        ascii("\u001b[0;32m"),
+        ascii("\u001b[0;33m"),
+        ascii("\u001b[38;5;208m"),
+        ascii("\u001b[0;34m")
+    };
+    private static final String FACE_COLORS = "WRGYOB";
+
+    private static final byte[] RESET = ascii("\u001b[0m");
+    private static final byte[] CLEAR_LINE = ascii("\u001b[K");
+    private static final byte[] HIDE_CURSOR = ascii("\u001b[?25l");
+    private static final byte[] SHOW_CURSOR = ascii("\u001b[?25h");
+
+    // Nine rows of stickers and a status line
+    private static final int FRAME_LINES = 10;
+    private static final byte[] FRAME_UP = ascii("\r\u001b[" + FRAME_LINES + "A");
+
+    // The middle band of the net: L F R B
+    private static final int[] MIDDLE = {4, 2, 1, 5};
+
+    private final PrintStream out;
+    private byte[] buffer = new byte[1024];
+    private int length;
+    private int lastColor;
+
+    // Whether the last frame was drawn by draw(), so the next one can overwrite it
+    private boolean drawn;
+
+    public TerminalView(PrintStream out) {
+        this.out = out;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Prints the cube below whatever is on the terminal, like a log line.
+     */
+    public void print(RubikCube cube) {
+        length = 0;
+        frame(cube, null);
+        write();
+        drawn = false;
+    }
+
+    /**
+     * Draws the cube and a status line over the frame drawn by the previous call, or below the
+     * terminal's contents if there is none.
+     * @param status Shown below the cube; may be empty or null.
+     */
+    public void draw(RubikCube cube, String status) {
+        length = 0;
+        if (drawn) {
+            put(FRAME_UP);
+        }
+        // The status line is always written, even blank, so every drawn frame is FRAME_LINES high
+        frame(cube, status != null ? status : "");
+        write();
+        drawn = true;
+    }
+
+    /**
+     * Applies a move sequence to the cube one move per frame, drawing each state in place.
+     * Frames are timed from the start, so slow terminals drop no time.
+     * @param fps Moves per second.
+     * @param label Shown in the status line before the move count, e.g. "Solution".
+     * @throws InterruptedException if the thread is interrupted between frames; the cube then
+     *         shows the moves applied so far.
+     */
+    public void play(RubikCube cube, Algorithm moves, double fps, String label) throws InterruptedException {
+        if (!(fps > 0)) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + fps);
+        }
+        long frameNanos = (long) (1e9 / fps);
+        long start = System.nanoTime();
+        out.write(HIDE_CURSOR, 0, HIDE_CURSOR.length);
+        try {
+            draw(cube, label + " 0/" + moves.length());
+            for (int i = 0; i < moves.length(); i++) {
+                long wait = start + (i + 1) * frameNanos - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+                cube.applyMove(moves.moveAt(i));
+                draw(cube, label + " " + (i + 1) + "/" + moves.length() + ": " + moves.moveName(i));
+            }
+        } finally {
+            out.write(SHOW_CURSOR, 0, SHOW_CURSOR.length);
+            out.flush();
+        }
+    }
+
+    // ************************************** Frames ***********************************************
+
+    private void frame(RubikCube cube, String status) {
+        lastColor = -1;
+        for (int row = 0; row < 3; row++) {
+            indent();
+            stickers(cube, 0, row);
+            endLine();
+        }
+        for (int row = 0; row < 3; row++) {
+            for (int face : MIDDLE) {
+                stickers(cube, face, row);
+            }
+            endLine();
+        }
+        for (int row = 0; row < 3; row++) {
+            indent();
+            stickers(cube, 3, row);
+            endLine();
+        }
+        put(RESET);
+        if (status != null) {
+            for (int i = 0; i < status.length(); i++) {
+                char c = status.charAt(i);
+                put(c < 0x80 ? (byte) c : (byte) '?');
+            }
+            endLine();
+        }
+    }
+
+    // Three stickers of a row, each a colored letter and a space
+    private void stickers(RubikCube cube, int face, int row) {
+        for (int col = 0; col < 3; col++) {
+            int color = cube.getFacelet(face * 9 + row * 3 + col);
+            if (color != lastColor) {
+                put(COLOR_CODES[color]);
+                lastColor = color;
+            }
+            put((byte) FACE_COLORS.charAt(color));
+            put((byte) ' ');
+        }
+    }
+
+    private void indent() {
+        for (int i = 0; i < 6; i++) {
+            put((byte) ' ');
+        }
+    }
+
+    // Clears what a longer line of the previous frame left behind
+    private void endLine() {
+        put(CLEAR_LINE);
+        put((byte) '\n');
+    }
+
+    private void put(byte b) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = b;
+    }
+
+    private void put(byte[] bytes) {
+        if (length + bytes.length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes.length));
+        }
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void write() {
+        out.write(buffer, 0, length);
+        out.flush();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        double fps = 4;
+        int i = 0;
+        if (args.length >= 2 && args[0].equals("-fps")) {
+            fps = Double.parseDouble(args[1]);
+            i = 2;
+        }
+        RubikCube cube = new RubikCube();
+        Algorithm scramble;
+        try {
+            scramble = Algorithm.parse(i < args.length
+                    ? String.join(" ", Arrays.copyOfRange(args, i, args.length))
+                    : cube.scrambleCube());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: TerminalView [-fps F] [scramble moves]");
+            return;
+        }
+        // Build the solver tables while the scramble plays
+        RubikCube.prewarmSolver();
+        TerminalView view = new TerminalView(System.out);
+        view.play(cube, scramble, fps, "Scramble");
+        String solution = cube.solveCube();
+        if (cube.isSolved() || solution.startsWith("Error")) {
+            System.out.println(solution);
+            return;
+        }
+        view.play(cube, Algorithm.parse(solution), fps, "Solution");
+    }
+}
@@ -0,0 +1,251 @@
+package com.ramteja.rubik;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The move history of a cube session, with undo, redo and random access to any point in it.
+ *
+ * Moves are kept as one byte each. Every {@code interval} moves the timeline also stores the
+ * cube's 54 facelets as a checkpoint. To seek, it either steps from the current position or
+ * restores the nearest checkpoint at or before the target and replays from there, whichever is
+ * shorter. So reaching any position costs at most {@code interval} moves, however long the
+ * session is. A million moves take about a megabyte, plus 54 bytes per checkpoint.
+ *
+ * The timeline drives the cube it was created for, and assumes that nothing else changes the
+ * cube. Recording a move while not at the end drops the moves after the current position, like
+ * typing after an undo. Not thread-safe.
+ */
+public final class Timeline {
+    public static final int DEFAULT_INTERVAL = 1024;
+
+    // File header: magic "RTLN", format version, checkpoint interval, length, position, reserved
+    private static final int MAGIC = 0x52544c4e;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    private final RubikCube cube;
+    private final int interval;
+
+    // Move codes of the whole session, and how many of them the cube is past
+    private byte[] moves = new byte[64];
+    private int length;
+    private int position;
+
+    // checkpoints[54 * i...] holds the facelets after i * interval moves; the first is the start state
+    private byte[] checkpoints = new byte[54 * 4];
+
+    /**
+     * Starts an empty timeline at the cube's current state, with checkpoints every
+     * {@link #DEFAULT_INTERVAL} moves.
+     */
+    public Timeline(RubikCube cube) {
+        this(cube, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Starts an empty timeline at the cube's current state.
+     * @param interval Moves between two checkpoints: the most a seek has to replay.
+     */
+    public Timeline(RubikCube cube, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        this.cube = cube;
+        this.interval = interval;
+        cube.copyFacelets(checkpoints, 0);
+    }
+
+    /**
+     * Drops the whole history and starts again from the cube's current state.
+     */
+    public void clear() {
+        length = 0;
+        position = 0;
+        cube.copyFacelets(checkpoints, 0);
+    }
+
+    /**
+     * @return The number of recorded moves, including any that were undone.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return How many moves of the timeline the cube is past, 0 to {@link #length()}.
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * @return The move code at the given index, 3 * face + power - 1 with faces ordered U R F D L B.
+     */
+    public int moveAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + length);
+        }
+        return moves[index];
+    }
+
+    // ************************************** Recording ********************************************
+
+    /**
+     * Applies a move to the cube and records it at the current position, dropping any moves that
+     * were undone.
+     * @param move The move code, 3 * face + power - 1 with faces ordered U R F D L B.
+     */
+    public void record(int move) {
+        if (move < 0 || move >= Moves.N_MOVES) {
+            throw new IllegalArgumentException("Invalid move code: " + move);
+        }
+        // Checkpoints up to the current position stay valid
+        length = position;
+        if (length == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[length++] = (byte) move;
+        position = length;
+        cube.applyMove(move);
+        if (length % interval == 0) {
+            int offset = 54 * (length / interval);
+            if (offset == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+            }
+            cube.copyFacelets(checkpoints, offset);
+        }
+    }
+
+    /**
+     * Applies and records every move of a sequence, as {@link #record(int)} does.
+     */
+    public void record(Algorithm algorithm) {
+        for (int i = 0, n = algorithm.length(); i < n; i++) {
+            record(algorithm.moveAt(i));
+        }
+    }
+
+    // ************************************** Navigation *******************************************
+
+    /**
+     * Takes back the last applied move.
+     * @return False if the cube is at the start of the timeline.
+     */
+    public boolean undo() {
+        if (position == 0) {
+            return false;
+        }
+        cube.applyMove(Moves.inverse(moves[--position]));
+        return true;
+    }
+
+    /**
+     * Applies the next move of the timeline again.
+     * @return False if the cube is at the end of the timeline.
+     */
+    public boolean redo() {
+        if (position == length) {
+            return false;
+        }
+        cube.applyMove(moves[position++]);
+        return true;
+    }
+
+    /**
+     * Brings the cube to the state after the first {@code target} moves, replaying at most
+     * {@code interval} moves.
+     * @throws IndexOutOfBoundsException if target is not between 0 and {@link #length()}.
+     */
+    public void seek(int target) {
+        if (target < 0 || target > length) {
+            throw new IndexOutOfBoundsException("Position " + target + " of " + length);
+        }
+        int checkpoint = target / interval;
+        if (Math.abs(target - position) > target - checkpoint * interval) {
+            cube.setFacelets(checkpoints, 54 * checkpoint);
+            position = checkpoint * interval;
+        }
+        while (position < target) {
+            cube.applyMove(moves[position++]);
+        }
+        while (position > target) {
+            cube.applyMove(Moves.inverse(moves[--position]));
+        }
+    }
+
+    // ************************************** Persistence ******************************************
+
+    /**
+     * Writes the timeline, its checkpoints and the current position to a file. The file is
+     * written next to its destination and moved into place, so a failed save keeps the old file.
+     */
+    public void save(Path file) throws IOException {
+        int checkpointBytes = 54 * (length / interval + 1);
+        ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + checkpointBytes + length).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(interval).putInt(length).putInt(position).putInt(0);
+        data.put(checkpoints, 0, checkpointBytes).put(moves, 0, length).flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a timeline written by {@link #save(Path)} and brings the cube to its saved position.
+     * @throws IOException if the file cannot be read, is damaged or was written by a different format version.
+     */
+    public static Timeline load(Path file, RubikCube cube) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a timeline");
+        }
+        if (data.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("unsupported timeline version " + data.getInt(4));
+        }
+        int interval = data.getInt(8);
+        int length = data.getInt(12);
+        int position = data.getInt(16);
+        if (interval < 1 || length < 0 || position < 0 || position > length
+                || data.capacity() != HEADER_SIZE + 54L * (length / interval + 1) + length) {
+            throw new IOException(file + " is damaged");
+        }
+        Timeline timeline = new Timeline(cube, interval);
+        int checkpointBytes = 54 * (length / interval + 1);
+        timeline.checkpoints = new byte[checkpointBytes];
+        timeline.moves = new byte[Math.max(64, length)];
+        data.position(HEADER_SIZE);
+        data.get(timeline.checkpoints).get(timeline.moves, 0, length);
+        for (int i = 0; i < checkpointBytes; i++) {
+            if (timeline.checkpoints[i] < 0 || timeline.checkpoints[i] >= 6) {
+                throw new IOException(file + " is damaged");
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            if (timeline.moves[i] < 0 || timeline.moves[i] >= Moves.N_MOVES) {
+                throw new IOException(file + " is damaged");
+            }
+        }
+        timeline.length = length;
+        // The new timeline is at position 0, so the cube must show the start state before seeking
+        cube.setFacelets(timeline.checkpoints, 0);
+        timeline.seek(position);
+        return timeline;
+    }
+}
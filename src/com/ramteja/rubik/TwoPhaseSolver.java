@@ -0,0 +1,595 @@
+package com.ramteja.rubik;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A reentrant implementation of Kociemba's Two-Phase-Algorithm.
+ *
+ * {@code org.kociemba.twophase.Search} keeps its whole IDA* stack in static arrays, so only one
+ * search can run per JVM. Here the search stack lives in the solver instance while the move and
+ * pruning tables are the shared, read-only {@link CoordTables}. An instance is not thread-safe,
+ * but any number of instances can search concurrently; {@link #forCurrentThread()} hands out one
+ * per thread. Results and error codes are the same as {@code Search.solution}.
+ */
+public final class TwoPhaseSolver {
+    // Bound for the first anytime solution. A looser bound finds it no sooner, as the search still
+    // has to reach a phase1 depth that leaves at most 10 phase2 moves.
+    private static final int ANYTIME_FIRST_DEPTH = 24;
+
+    private static final int N_MOVE = 18;
+
+    private static final String SOLVED = "UUUUUUUUURRRRRRRRRFFFFFFFFFDDDDDDDDDLLLLLLLLLBBBBBBBBB";
+
+    private static final ThreadLocal<TwoPhaseSolver> PER_THREAD = ThreadLocal.withInitial(TwoPhaseSolver::new);
+
+    private final CoordTables tables;
+
+    private final int[] ax = new int[31]; // The axis of the move
+    private final int[] po = new int[31]; // The power of the move
+
+    private final int[] flip = new int[31]; // phase1 coordinates
+    private final int[] twist = new int[31];
+    private final int[] slice = new int[31];
+
+    private final int[] parity = new int[31]; // phase2 coordinates
+    private final int[] URFtoDLF = new int[31];
+    private final int[] FRtoBR = new int[31];
+    private final int[] URtoUL = new int[31];
+    private final int[] UBtoDF = new int[31];
+    private final int[] URtoDF = new int[31];
+
+    private final int[] minDistPhase1 = new int[31]; // IDA* distance to goal estimations
+    private final int[] minDistPhase2 = new int[31];
+
+    // Where the phase1 search stopped, so that it can be resumed for a shorter solution
+    private int n;
+    private int depthPhase1;
+    private int solutionLength;
+
+    // Parallel search only: the fixed first move, and the best length found by any worker
+    private int rootMove = -1;
+    private AtomicInteger sharedBest;
+    private int sharedTarget;
+
+    // Counters of the current or last solve while SolverMetrics is enabled, else null
+    private SolveStats stats;
+
+    /**
+     * Creates a solver over the shared tables, building them first if no solver has done so yet.
+     */
+    public TwoPhaseSolver() {
+        this.tables = CoordTables.get();
+    }
+
+    /**
+     * @return The solver owned by the calling thread.
+     */
+    public static TwoPhaseSolver forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Computes the solver string for a given cube.
+     *
+     * @param facelets The cube definition string in {@link RubikCube#toString()} format.
+     * @param maxDepth The maximal allowed maneuver length. For random cubes, a maxDepth of 21 usually
+     *          returns a solution in less than 0.5 seconds.
+     * @param timeOut The maximum computing time in seconds before giving up with an error code.
+     *          An interrupted thread gives up the same way, and keeps its interrupt status.
+     * @param useSeparator Whether a " . " separates the phase1 and phase2 parts of the solution.
+     * @return The solution string or an error code:<br>
+     *         Error 1: There is not exactly one facelet of each colour<br>
+     *         Error 2: Not all 12 edges exist exactly once<br>
+     *         Error 3: Flip error: One edge has to be flipped<br>
+     *         Error 4: Not all corners exist exactly once<br>
+     *         Error 5: Twist error: One corner has to be twisted<br>
+     *         Error 6: Parity error: Two corners or two edges have to be exchanged<br>
+     *         Error 7: No solution exists for the given maxDepth<br>
+     *         Error 8: Timeout, no solution within given time, or the thread was interrupted
+     */
+    public String solution(String facelets, int maxDepth, long timeOut, boolean useSeparator) {
+        byte[] f = parseFacelets(facelets);
+        if (f == null) {
+            return "Error 1";
+        }
+        CubieCube cc = CubieCube.fromFacelets(f);
+        int s = cc.verify();
+        if (s != 0) {
+            return "Error " + Math.abs(s);
+        }
+        return solution(cc, maxDepth, timeOut, useSeparator);
+    }
+
+    /**
+     * Converts a cube definition string to face indices, or returns null unless every face
+     * letter appears exactly nine times.
+     */
+    static byte[] parseFacelets(String facelets) {
+        if (facelets.length() < 54) {
+            return null;
+        }
+        byte[] f = new byte[54];
+        int[] count = new int[6];
+        for (int i = 0; i < 54; i++) {
+            int color = Moves.FACES.indexOf(facelets.charAt(i));
+            if (color < 0) {
+                return null;
+            }
+            f[i] = (byte) color;
+            count[color]++;
+        }
+        for (int i = 0; i < 6; i++) {
+            if (count[i] != 9) {
+                return null;
+            }
+        }
+        return f;
+    }
+
+    String solution(CubieCube cc, int maxDepth, long timeOut, boolean useSeparator) {
+        beginStats();
+        start(new CubeCoordinates(cc));
+        return endStats(next(maxDepth, System.currentTimeMillis() + (timeOut << 10), useSeparator));
+    }
+
+    /**
+     * Computes the solver string for a cube given by its coordinates, skipping the parsing,
+     * verification and cubie conversion that {@link #solution(String, int, long, boolean)} does.
+     *
+     * @param coordinates The cube, e.g. as followed move by move with {@link CubeCoordinates#move}.
+     * @return The solution string, empty for a solved cube, or error 7 or 8 as for {@link #solution}.
+     */
+    public String solution(CubeCoordinates coordinates, int maxDepth, long timeOut, boolean useSeparator) {
+        if (coordinates.isSolved()) {
+            return "";
+        }
+        beginStats();
+        start(coordinates);
+        return endStats(next(maxDepth, System.currentTimeMillis() + (timeOut << 10), useSeparator));
+    }
+
+    /**
+     * @return What the last solve of this instance did, or null if {@link SolverMetrics} was disabled.
+     */
+    public SolveStats lastStats() {
+        return stats;
+    }
+
+    private void beginStats() {
+        stats = SolverMetrics.isEnabled() ? new SolveStats() : null;
+    }
+
+    // Completes and records the statistics of the solve that returns this result
+    private String endStats(String result) {
+        if (stats != null) {
+            finishStats(stats, result.startsWith("Error") ? -1 : solutionLength, depthPhase1);
+        }
+        return result;
+    }
+
+    private static void finishStats(SolveStats stats, int length, int depthPhase1) {
+        stats.nanos = System.nanoTime() - stats.startNanos;
+        stats.length = length;
+        stats.phase1Depth = depthPhase1;
+        SolverMetrics.record(stats);
+    }
+
+    /**
+     * Solves a cube progressively: the first solution is found as quickly as possible, then the
+     * search continues where it stopped, bounded to one move less than the best solution so far.
+     * Unlike calling {@link #solution} repeatedly with smaller depths, no phase1 depth is searched twice.
+     *
+     * The first solution takes a few tens of milliseconds for most states, but a few percent need
+     * several hundred. The deadline does not apply to it: if it passes first, the search stops
+     * as soon as the first solution is found, so a cube is always solved.
+     *
+     * @param facelets The cube definition string in {@link RubikCube#toString()} format.
+     * @param targetLength Stop as soon as a solution this short is found.
+     * @param deadline Stop looking for shorter solutions at this {@link System#currentTimeMillis()} time.
+     * @param onSolution Receives each solution shorter than the ones before, as it is found.
+     * @return The shortest solution found, or an error code as for {@link #solution} if the
+     *         facelets are not a valid cube.
+     */
+    public String solutionAnytime(String facelets, int targetLength, long deadline, Consumer<String> onSolution) {
+        byte[] f = parseFacelets(facelets);
+        if (f == null) {
+            return "Error 1";
+        }
+        CubieCube cc = CubieCube.fromFacelets(f);
+        int s = cc.verify();
+        if (s != 0) {
+            return "Error " + Math.abs(s);
+        }
+        if (facelets.startsWith(SOLVED)) {
+            onSolution.accept("");
+            return "";
+        }
+        beginStats();
+        start(new CubeCoordinates(cc));
+        String best = null;
+        int maxDepth = ANYTIME_FIRST_DEPTH;
+        while (true) {
+            String solution = next(maxDepth, best != null ? deadline : Long.MAX_VALUE, false);
+            if (solution.startsWith("Error")) {
+                // Error 7: the bound is exhausted, so the best solution is final; Error 8: out of time
+                return endStats(best != null ? best : solution);
+            }
+            best = solution;
+            onSolution.accept(solution);
+            if (solutionLength <= targetLength) {
+                return endStats(best);
+            }
+            maxDepth = solutionLength - 1;
+        }
+    }
+
+    /**
+     * Solves one cube on several cores. Each phase1 depth is split by its first move into 18 tasks
+     * on {@code pool}, and depths are searched in increasing order as in {@link #solution}. Every
+     * task keeps looking for shorter solutions, bounded by the shortest length any task has found
+     * so far, and all tasks stop once one reaches {@code targetLength}. With {@code targetLength == maxDepth}
+     * the first solution found wins; which one that is may vary from run to run.
+     *
+     * @param facelets The cube definition string in {@link RubikCube#toString()} format.
+     * @param maxDepth The maximal allowed maneuver length.
+     * @param targetLength Stop all tasks as soon as a solution this short is found.
+     * @param timeOut The maximum computing time in seconds.
+     * @return The shortest solution found, or an error code as for {@link #solution}.
+     * @throws InterruptedException if the calling thread is interrupted; all tasks are stopped.
+     */
+    public static String solutionParallel(String facelets, int maxDepth, int targetLength, long timeOut,
+            ForkJoinPool pool) throws InterruptedException {
+        byte[] f = parseFacelets(facelets);
+        if (f == null) {
+            return "Error 1";
+        }
+        CubieCube cc = CubieCube.fromFacelets(f);
+        int s = cc.verify();
+        if (s != 0) {
+            return "Error " + Math.abs(s);
+        }
+        if (facelets.startsWith(SOLVED)) {
+            return "";
+        }
+        return solutionParallel(new CubeCoordinates(cc), maxDepth, targetLength, timeOut, pool);
+    }
+
+    /**
+     * Same as {@link #solutionParallel(String, int, int, long, ForkJoinPool)}, starting from
+     * coordinates instead of parsing a facelet string.
+     */
+    static String solutionParallel(CubeCoordinates coordinates, int maxDepth, int targetLength, long timeOut,
+            ForkJoinPool pool) throws InterruptedException {
+        if (coordinates.isSolved()) {
+            return "";
+        }
+        long deadline = System.currentTimeMillis() + (timeOut << 10);
+        AtomicInteger best = new AtomicInteger(maxDepth + 1);
+        String[] bestSolution = new String[1];
+        SolveStats total = SolverMetrics.isEnabled() ? new SolveStats() : null;
+        TwoPhaseSolver[] workers = new TwoPhaseSolver[N_MOVE];
+        for (int move = 0; move < N_MOVE; move++) {
+            workers[move] = new TwoPhaseSolver();
+            workers[move].stats = total != null ? new SolveStats() : null;
+            workers[move].start(coordinates);
+            workers[move].rootMove = move;
+            workers[move].sharedBest = best;
+            workers[move].sharedTarget = targetLength;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(N_MOVE);
+        try {
+            for (int depth = 1; depth < best.get() && best.get() > targetLength; depth++) {
+                if (System.currentTimeMillis() > deadline) {
+                    break;
+                }
+                tasks.clear();
+                for (TwoPhaseSolver worker : workers) {
+                    worker.startDepth(depth);
+                    tasks.add(pool.submit(() -> {
+                        String solution;
+                        while (!(solution = worker.next(best.get() - 1, deadline, false)).startsWith("Error")) {
+                            synchronized (bestSolution) {
+                                if (worker.solutionLength < best.get()) {
+                                    best.set(worker.solutionLength);
+                                    bestSolution[0] = solution;
+                                }
+                            }
+                        }
+                    }));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.get();
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        } finally {
+            // Every running task gives up at its next check, also when we were interrupted
+            best.set(Integer.MIN_VALUE);
+        }
+        String result;
+        synchronized (bestSolution) {
+            result = bestSolution[0];
+        }
+        if (total != null) {
+            int depthPhase1 = 0;
+            for (TwoPhaseSolver worker : workers) {
+                total.add(worker.stats);
+                depthPhase1 = Math.max(depthPhase1, worker.depthPhase1);
+            }
+            finishStats(total, result != null ? Algorithm.parse(result).length() : -1, depthPhase1);
+        }
+        if (result != null) {
+            return result;
+        }
+        return System.currentTimeMillis() > deadline ? "Error 8" : "Error 7";
+    }
+
+    /**
+     * Same as {@link #solutionParallel(String, int, int, long, ForkJoinPool)} on the common pool.
+     */
+    public static String solutionParallel(String facelets, int maxDepth, int targetLength, long timeOut)
+            throws InterruptedException {
+        return solutionParallel(facelets, maxDepth, targetLength, timeOut, ForkJoinPool.commonPool());
+    }
+
+    // ++++++++++++++++++++++++++++++++ initialization ++++++++++++++++++++++++++++++++++++++++++++
+    private void start(CubeCoordinates cc) {
+        po[0] = 0;
+        ax[0] = 0;
+        flip[0] = cc.flip;
+        twist[0] = cc.twist;
+        parity[0] = cc.parity;
+        FRtoBR[0] = cc.FRtoBR;
+        slice[0] = FRtoBR[0] / 24;
+        URFtoDLF[0] = cc.URFtoDLF;
+        URtoUL[0] = cc.URtoUL;
+        UBtoDF[0] = cc.UBtoDF;
+
+        minDistPhase1[1] = 1; // else failure for depth=1, n=0
+        n = 0;
+        depthPhase1 = 1;
+    }
+
+    // Restarts a parallel worker at the root for one phase1 depth
+    private void startDepth(int depth) {
+        n = 0;
+        depthPhase1 = depth;
+        ax[0] = rootMove / 3;
+        po[0] = 0;
+        minDistPhase1[1] = depth; // try the root move before descending
+    }
+
+    // Runs the phase1 search from where it last stopped until a solution of at most maxDepth moves
+    // is found. The found node is marked as used, so the next call continues with the node after it.
+    private String next(int maxDepth, long deadline, boolean useSeparator) {
+        int s;
+        int mv;
+        boolean busy = false;
+
+        // +++++++++++++++++++ Main loop ++++++++++++++++++++++++++++++++++++++++++
+        do {
+            do {
+                if ((depthPhase1 - n > minDistPhase1[n + 1]) && !busy) {
+                    if (ax[n] == 0 || ax[n] == 3) { // Initialize next move
+                        ax[++n] = 1;
+                    } else {
+                        ax[++n] = 0;
+                    }
+                    po[n] = 1;
+                } else if (n == 0 && rootMove >= 0) {
+                    // Parallel worker: only one first move at one phase1 depth is searched
+                    if (po[0] != 0) {
+                        return "Error 7";
+                    }
+                    po[0] = rootMove % 3 + 1;
+                    busy = false;
+                } else if (++po[n] > 3) {
+                    do { // increment axis
+                        if (++ax[n] > 5) {
+                            if (System.currentTimeMillis() > deadline || Thread.currentThread().isInterrupted()) {
+                                return "Error 8";
+                            }
+                            if (sharedBest != null) {
+                                int best = sharedBest.get();
+                                if (best <= sharedTarget) {
+                                    return "Error 7"; // another worker is done
+                                }
+                                maxDepth = Math.min(maxDepth, best - 1);
+                                if (depthPhase1 > maxDepth) {
+                                    return "Error 7";
+                                }
+                            }
+                            if (n == 0) {
+                                if (depthPhase1 >= maxDepth) {
+                                    return "Error 7";
+                                }
+                                depthPhase1++;
+                                ax[n] = 0;
+                                po[n] = 1;
+                                busy = false;
+                                break;
+                            } else {
+                                n--;
+                                busy = true;
+                                break;
+                            }
+                        } else {
+                            po[n] = 1;
+                            busy = false;
+                        }
+                    } while (n != 0 && (ax[n - 1] == ax[n] || ax[n - 1] - 3 == ax[n]));
+                } else {
+                    busy = false;
+                }
+            } while (busy);
+
+            // +++++++++++++ compute new coordinates and new minDistPhase1 ++++++++++
+            // if minDistPhase1 = 0, the H subgroup is reached
+            mv = 3 * ax[n] + po[n] - 1;
+            flip[n + 1] = tables.flipMove(flip[n], mv);
+            twist[n + 1] = tables.twistMove(twist[n], mv);
+            slice[n + 1] = tables.FRtoBR_Move(slice[n] * 24, mv) / 24;
+            minDistPhase1[n + 1] = tables.phase1Distance(flip[n + 1], twist[n + 1], slice[n + 1]);
+            if (stats != null) {
+                stats.phase1Nodes++;
+                stats.pruningLookups++;
+                if (minDistPhase1[n + 1] > depthPhase1 - n - 1) {
+                    stats.pruningCutoffs++;
+                }
+            }
+
+            if (minDistPhase1[n + 1] == 0 && n >= depthPhase1 - 5) {
+                minDistPhase1[n + 1] = 10; // instead of 10 any value >5 is possible
+                if (n == depthPhase1 - 1 && (s = totalDepth(depthPhase1, maxDepth)) >= 0) {
+                    if (s == depthPhase1
+                            || (ax[depthPhase1 - 1] != ax[depthPhase1] && ax[depthPhase1 - 1] != ax[depthPhase1] + 3)) {
+                        solutionLength = s;
+                        return solutionToString(s, useSeparator ? depthPhase1 : -1);
+                    }
+                }
+            }
+        } while (true);
+    }
+
+    // Apply phase2 of algorithm and return the combined phase1 and phase2 depth. In phase2, only the moves
+    // U,D,R2,F2,L2 and B2 are allowed.
+    private int totalDepth(int depthPhase1, int maxDepth) {
+        int mv, d1, d2;
+        int maxDepthPhase2 = Math.min(10, maxDepth - depthPhase1); // Allow only max 10 moves in phase2
+        if (stats != null) {
+            stats.phase2Attempts++;
+            stats.pruningLookups++;
+        }
+        for (int i = 0; i < depthPhase1; i++) {
+            mv = 3 * ax[i] + po[i] - 1;
+            URFtoDLF[i + 1] = tables.URFtoDLF_Move(URFtoDLF[i], mv);
+            FRtoBR[i + 1] = tables.FRtoBR_Move(FRtoBR[i], mv);
+            parity[i + 1] = CoordTables.parityMove(parity[i], mv);
+        }
+
+        if ((d1 = tables.sliceURFtoDLFParityPrun(URFtoDLF[depthPhase1], FRtoBR[depthPhase1],
+                parity[depthPhase1])) > maxDepthPhase2) {
+            if (stats != null) {
+                stats.pruningCutoffs++;
+            }
+            return -1;
+        }
+
+        for (int i = 0; i < depthPhase1; i++) {
+            mv = 3 * ax[i] + po[i] - 1;
+            URtoUL[i + 1] = tables.URtoUL_Move(URtoUL[i], mv);
+            UBtoDF[i + 1] = tables.UBtoDF_Move(UBtoDF[i], mv);
+        }
+        URtoDF[depthPhase1] = tables.mergeURtoULandUBtoDF(URtoUL[depthPhase1], UBtoDF[depthPhase1]);
+
+        if (stats != null) {
+            stats.pruningLookups++;
+        }
+        if ((d2 = tables.sliceURtoDFParityPrun(URtoDF[depthPhase1], FRtoBR[depthPhase1],
+                parity[depthPhase1])) > maxDepthPhase2) {
+            if (stats != null) {
+                stats.pruningCutoffs++;
+            }
+            return -1;
+        }
+
+        if ((minDistPhase2[depthPhase1] = Math.max(d1, d2)) == 0) { // already solved
+            return depthPhase1;
+        }
+
+        // now set up search
+        int depthPhase2 = 1;
+        int n = depthPhase1;
+        boolean busy = false;
+        po[depthPhase1] = 0;
+        ax[depthPhase1] = 0;
+        minDistPhase2[n + 1] = 1; // else failure for depthPhase2=1, n=0
+        // +++++++++++++++++++ end initialization +++++++++++++++++++++++++++++++++
+        do {
+            do {
+                if ((depthPhase1 + depthPhase2 - n > minDistPhase2[n + 1]) && !busy) {
+                    if (ax[n] == 0 || ax[n] == 3) { // Initialize next move
+                        ax[++n] = 1;
+                        po[n] = 2;
+                    } else {
+                        ax[++n] = 0;
+                        po[n] = 1;
+                    }
+                } else if ((ax[n] == 0 || ax[n] == 3) ? (++po[n] > 3) : ((po[n] = po[n] + 2) > 3)) {
+                    do { // increment axis
+                        if (++ax[n] > 5) {
+                            if (n == depthPhase1) {
+                                if (depthPhase2 >= maxDepthPhase2) {
+                                    return -1;
+                                }
+                                depthPhase2++;
+                                ax[n] = 0;
+                                po[n] = 1;
+                                busy = false;
+                                break;
+                            } else {
+                                n--;
+                                busy = true;
+                                break;
+                            }
+                        } else {
+                            if (ax[n] == 0 || ax[n] == 3) {
+                                po[n] = 1;
+                            } else {
+                                po[n] = 2;
+                            }
+                            busy = false;
+                        }
+                    } while (n != depthPhase1 && (ax[n - 1] == ax[n] || ax[n - 1] - 3 == ax[n]));
+                } else {
+                    busy = false;
+                }
+            } while (busy);
+            // +++++++++++++ compute new coordinates and new minDist ++++++++++
+            mv = 3 * ax[n] + po[n] - 1;
+
+            URFtoDLF[n + 1] = tables.URFtoDLF_Move(URFtoDLF[n], mv);
+            FRtoBR[n + 1] = tables.FRtoBR_Move(FRtoBR[n], mv);
+            parity[n + 1] = CoordTables.parityMove(parity[n], mv);
+            URtoDF[n + 1] = tables.URtoDF_Move(URtoDF[n], mv);
+
+            minDistPhase2[n + 1] = Math.max(tables.sliceURtoDFParityPrun(URtoDF[n + 1], FRtoBR[n + 1], parity[n + 1]),
+                    tables.sliceURFtoDLFParityPrun(URFtoDLF[n + 1], FRtoBR[n + 1], parity[n + 1]));
+            if (stats != null) {
+                stats.phase2Nodes++;
+                stats.pruningLookups += 2;
+                if (minDistPhase2[n + 1] > depthPhase1 + depthPhase2 - n - 1) {
+                    stats.pruningCutoffs++;
+                }
+            }
+
+        } while (minDistPhase2[n + 1] != 0);
+        return depthPhase1 + depthPhase2;
+    }
+
+    // Generate the solution string from the array data, with a " . " after the first
+    // depthPhase1 moves if depthPhase1 >= 0
+    private String solutionToString(int length, int depthPhase1) {
+        StringBuilder s = new StringBuilder(length * 3 + 2);
+        for (int i = 0; i < length; i++) {
+            s.append(Moves.FACES.charAt(ax[i]));
+            switch (po[i]) {
+                case 1: s.append(' '); break;
+                case 2: s.append("2 "); break;
+                case 3: s.append("' "); break;
+                default: break;
+            }
+            if (i == depthPhase1 - 1) {
+                s.append(". ");
+            }
+        }
+        return s.toString();
+    }
+}